@@ -6,6 +6,7 @@ import com.example.hack1.DTO.Response.LoginResponse;
 import com.example.hack1.DTO.Response.UserResponseDTO;
 import com.example.hack1.Exception.InvalidCredentialsException;
 import com.example.hack1.Exception.UserNotFoundException;
+import com.example.hack1.Mapper.UserMapper;
 import com.example.hack1.Security.JwtService;
 import com.example.hack1.User.Repository.UserRepository;
 import com.example.hack1.User.domain.Rol;
@@ -13,9 +14,6 @@ import com.example.hack1.User.domain.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.annotation.Transactional;
-import org.modelmapper.ModelMapper;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -28,8 +26,7 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
 
     @Transactional
     public UserResponseDTO register(RegisterUserDTO request) {
@@ -57,7 +54,7 @@ public class AuthService {
         User savedUser = userRepository.save(newUser);
 
         log.info("Usuario registrado exitosamente: {}", savedUser.getUsername());
-        return modelMapper.map(savedUser, UserResponseDTO.class);
+        return userMapper.toResponse(savedUser);
     }
 
     @Transactional(readOnly = true)
@@ -86,11 +83,8 @@ public class AuthService {
 
         // Generar token
         try {
-            log.info("Cargando UserDetails para: {}", user.getEmail());
-            UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-
             log.info("Generando token JWT");
-            String token = jwtService.generateToken(userDetails, user.getRole().name());
+            String token = jwtService.generateToken(user);
 
             log.info("Token generado exitosamente");
             return new LoginResponse(token, jwtService.getExpirationTime(), user.getRole(), user.getBranch());
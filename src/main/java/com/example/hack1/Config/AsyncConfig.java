@@ -1,9 +1,23 @@
 package com.example.hack1.Config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
+
+    public static final String REPORT_EXECUTOR = "reportExecutor";
+
+    /**
+     * Ejecutor dedicado a los reportes semanales (@Async(AsyncConfig.REPORT_EXECUTOR))
+     */
+    @Bean(name = REPORT_EXECUTOR)
+    public ReportTaskExecutor reportExecutor(@Value("${reports.executor.max-in-flight:10000}") int maxInFlight,
+                                             MeterRegistry meterRegistry) {
+        return new ReportTaskExecutor(maxInFlight, meterRegistry);
+    }
 }
@@ -0,0 +1,104 @@
+package com.example.hack1.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Circuit breaker mínimo para un servicio remoto.
+ * CLOSED: deja pasar todo y cuenta fallos consecutivos; al llegar al umbral pasa a OPEN.
+ * OPEN: rechaza sin llamar hasta que vence openDuration; entonces pasa a HALF_OPEN.
+ * HALF_OPEN: deja pasar una sola llamada de prueba; si sale bien cierra, si falla vuelve a abrir.
+ * Métricas con tag name: circuit.state (0 cerrado, 1 semiabierto, 2 abierto), circuit.short.circuited
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Counter shortCircuited;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+
+        Gauge.builder("circuit.state", this, cb -> cb.getState().ordinal())
+                .tag("name", name)
+                .register(meterRegistry);
+        this.shortCircuited = Counter.builder("circuit.short.circuited")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * true si la llamada puede salir; false si hay que responder con el fallback
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && !Instant.now().isBefore(openedAt.plus(openDuration))) {
+            state = State.HALF_OPEN;
+            log.info("🔌 Circuito {} semiabierto: se permite una llamada de prueba", name);
+        }
+
+        boolean allowed = switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> !probeInFlight;
+            case OPEN -> false;
+        };
+
+        if (!allowed) {
+            shortCircuited.increment();
+        } else if (state == State.HALF_OPEN) {
+            probeInFlight = true;
+        }
+        return allowed;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("✅ Circuito {} cerrado de nuevo", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("🚧 Circuito {} abierto tras {} fallos consecutivos", name, consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAt = Instant.now();
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Libera la llamada de prueba si terminó sin registrar éxito ni fallo (excepción inesperada,
+     * interrupción). Se llama en un finally; tras onSuccess/onFailure no hace nada.
+     * Sin esto el circuito quedaría semiabierto rechazando todas las llamadas.
+     */
+    public synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
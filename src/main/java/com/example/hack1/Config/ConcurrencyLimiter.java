@@ -0,0 +1,83 @@
+package com.example.hack1.Config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Limita cuántas tareas usan a la vez un recurso externo (LLM, SMTP, escaneos de BD).
+ * Con hilos virtuales esperar un permiso es barato, así que el límite se aplica
+ * por recurso y no con el tamaño de un pool de hilos.
+ * Métricas con tag resource: reports.limiter.waiting, reports.limiter.in.use, reports.limiter.wait
+ */
+public class ConcurrencyLimiter {
+
+    private final String resource;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Timer waitTimer;
+
+    public ConcurrencyLimiter(String resource, int maxConcurrent, MeterRegistry meterRegistry) {
+        this.resource = resource;
+        this.permits = new Semaphore(maxConcurrent, true);
+
+        Gauge.builder("reports.limiter.waiting", waiting, AtomicInteger::get)
+                .tag("resource", resource)
+                .register(meterRegistry);
+        Gauge.builder("reports.limiter.in.use", permits, p -> maxConcurrent - p.availablePermits())
+                .tag("resource", resource)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("reports.limiter.wait")
+                .tag("resource", resource)
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> task) {
+        acquire();
+        try {
+            return task.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Permiso para tareas que no caben en un Supplier (p. ej. un stream con excepciones
+     * verificadas): se libera al cerrarlo, con try-with-resources
+     */
+    public Permit acquirePermit() {
+        acquire();
+        return permits::release;
+    }
+
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private void acquire() {
+        waiting.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando permiso para " + resource, e);
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
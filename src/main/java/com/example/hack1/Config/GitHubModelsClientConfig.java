@@ -0,0 +1,43 @@
+package com.example.hack1.Config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Cliente HTTP de GitHub Models: un único HttpClient del JDK compartido (RestTemplate y
+ * streaming), que mantiene las conexiones keep-alive en su pool, con timeouts de conexión y lectura explícitos.
+ * La concurrencia contra el endpoint ya la acota reports.limits.llm.
+ */
+@Configuration
+public class GitHubModelsClientConfig {
+
+    @Bean
+    public HttpClient gitHubModelsHttpClient(@Value("${github.models.connect-timeout-ms:3000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate gitHubModelsRestTemplate(HttpClient httpClient,
+                                                 @Value("${github.models.read-timeout-ms:15000}") long readTimeoutMs) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
+    }
+
+    @Bean
+    public CircuitBreaker gitHubModelsCircuitBreaker(@Value("${github.models.circuit.failure-threshold:5}") int failureThreshold,
+                                                     @Value("${github.models.circuit.open-seconds:30}") long openSeconds,
+                                                     MeterRegistry meterRegistry) {
+        return new CircuitBreaker("github-models", failureThreshold, Duration.ofSeconds(openSeconds), meterRegistry);
+    }
+}
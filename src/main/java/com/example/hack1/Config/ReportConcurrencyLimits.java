@@ -0,0 +1,26 @@
+package com.example.hack1.Config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Límites de concurrencia de cada etapa del reporte semanal.
+ * db-scan debe quedar por debajo del tamaño del pool de conexiones (Hikari: 10 por defecto).
+ * Las conexiones SMTP (reports.limits.smtp) las limita MailDispatcher.
+ */
+@Getter
+@Component
+public class ReportConcurrencyLimits {
+
+    private final ConcurrencyLimiter llm;
+    private final ConcurrencyLimiter dbScan;
+
+    public ReportConcurrencyLimits(@Value("${reports.limits.llm:4}") int llm,
+                                   @Value("${reports.limits.db-scan:4}") int dbScan,
+                                   MeterRegistry meterRegistry) {
+        this.llm = new ConcurrencyLimiter("llm", llm, meterRegistry);
+        this.dbScan = new ConcurrencyLimiter("db-scan", dbScan, meterRegistry);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.hack1.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Un hilo virtual por reporte. No hay cola de pool que desbordar: los reportes
+ * esperan en los ConcurrencyLimiter de cada recurso. Solo se rechaza por encima de
+ * max-in-flight, como protección de memoria ante una ráfaga anómala.
+ * Métricas: reports.executor.in.flight, reports.executor.rejected
+ */
+@Slf4j
+public class ReportTaskExecutor implements TaskExecutor, DisposableBean {
+
+    private final ExecutorService delegate =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("report-", 0).factory());
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    public ReportTaskExecutor(int maxInFlight, MeterRegistry meterRegistry) {
+        this.maxInFlight = maxInFlight;
+        Gauge.builder("reports.executor.in.flight", inFlight, AtomicInteger::get).register(meterRegistry);
+        this.rejected = Counter.builder("reports.executor.rejected").register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            throw new TaskRejectedException("Se alcanzó el máximo de " + maxInFlight + " reportes en curso");
+        }
+
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            throw new TaskRejectedException("El ejecutor de reportes no acepta tareas", e);
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        delegate.shutdown();
+        if (!delegate.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("⚠️ {} reportes no terminaron antes del apagado", inFlight.get());
+            delegate.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.hack1.DTO.Request;
+
+import com.example.hack1.report.domain.ReportJobStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedriveRequestDTO {
+
+    // Reportes puntuales; si viene vacío se toman los más antiguos (opcionalmente de una etapa)
+    @Size(max = 1000, message = "Se pueden reencolar como máximo 1000 reportes por request")
+    private List<String> requestIds;
+
+    private ReportJobStatus stage;
+
+    @Min(value = 1, message = "El límite debe ser al menos 1")
+    @Max(value = 1000, message = "El límite no puede superar 1000")
+    private Integer limit;
+}
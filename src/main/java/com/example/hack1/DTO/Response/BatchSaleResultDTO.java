@@ -0,0 +1,23 @@
+package com.example.hack1.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSaleResultDTO {
+    private int index;
+    private String status;  // CREATED | REJECTED
+    private String id;
+    private String error;
+
+    public static BatchSaleResultDTO created(int index, String id) {
+        return new BatchSaleResultDTO(index, "CREATED", id, null);
+    }
+
+    public static BatchSaleResultDTO rejected(int index, String error) {
+        return new BatchSaleResultDTO(index, "REJECTED", null, error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.hack1.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSalesResponseDTO {
+    private int received;
+    private int created;
+    private int rejected;
+    private List<BatchSaleResultDTO> results;
+}
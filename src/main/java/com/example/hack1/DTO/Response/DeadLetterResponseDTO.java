@@ -0,0 +1,21 @@
+package com.example.hack1.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterResponseDTO {
+    private String requestId;
+    // Etapa que agotó sus reintentos (AGGREGATING, SUMMARIZING o EMAILING)
+    private String stage;
+    private int attempts;
+    private String lastError;
+    private String requestedBy;
+    private boolean premium;
+    private Instant deadAt;
+}
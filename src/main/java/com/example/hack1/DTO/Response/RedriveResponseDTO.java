@@ -0,0 +1,12 @@
+package com.example.hack1.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedriveResponseDTO {
+    private int redriven;
+}
@@ -0,0 +1,25 @@
+package com.example.hack1.DTO.Response;
+
+import com.example.hack1.sales.domain.SalesAggregates;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportStatusResponseDTO {
+    private String requestId;
+    private String status;
+    private int attempts;
+    private Instant requestedAt;
+    private Instant finishedAt;
+    // Duración en ms de cada etapa ya terminada (queued, aggregating, summarizing, emailing)
+    private Map<String, Long> stageTimingsMs;
+    // Presente desde que termina la agregación; el resumen, desde SUMMARIZING
+    private SalesAggregates result;
+    private String error;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Data
 @NoArgsConstructor
@@ -20,4 +21,12 @@ public class SaleResponseDTO {
     private String soldAt;
 
     private String branch;
+
+    /**
+     * Usado por las proyecciones JPQL de SalesRepository (SELECT new ...):
+     * la fila se convierte directo en DTO sin pasar por la entidad Sales
+     */
+    public SaleResponseDTO(String id, String sku, BigDecimal price, Integer units, Instant soldAt, String branch) {
+        this(id, sku, price, units, soldAt != null ? soldAt.toString() : null, branch);
+    }
 }
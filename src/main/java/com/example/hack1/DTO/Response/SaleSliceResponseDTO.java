@@ -0,0 +1,21 @@
+package com.example.hack1.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página por cursor de GET /api/sales: sin total ni COUNT(*).
+ * next es null cuando no hay más resultados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaleSliceResponseDTO {
+    private List<SaleResponseDTO> content;
+    private int size;
+    private boolean hasNext;
+    private String next;
+}
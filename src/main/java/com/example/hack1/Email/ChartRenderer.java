@@ -0,0 +1,227 @@
+package com.example.hack1.Email;
+
+import com.example.hack1.sales.domain.UnitsByKey;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Gráficos PNG de los reportes premium, dibujados en el servidor con los datos reales
+ * (unidades por SKU y por sucursal) para adjuntarlos inline (cid:) en el correo.
+ * Los PNG se cachean por huella de los datos: reportes coalescidos o repetidos reutilizan los mismos bytes.
+ * Métricas: reports.charts.cache.hits, reports.charts.cache.misses
+ */
+@Component
+public class ChartRenderer {
+
+    private static final int WIDTH = 600;
+    private static final int MAX_BARS = 8;
+    private static final int MAX_SLICES = 6;
+    private static final Color[] PALETTE = {
+            new Color(0x667eea), new Color(0x764ba2), new Color(0xffc107), new Color(0x28a745),
+            new Color(0x17a2b8), new Color(0xe83e8c), new Color(0xfd7e14), new Color(0x6c757d)
+    };
+    private static final Color OTHERS = new Color(0xe0e0e0);
+    private static final Font LABEL_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 13);
+
+    private final int maxEntries;
+    private final Map<String, byte[]> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ChartRenderer(@Value("${reports.charts.cache.max-entries:256}") int maxEntries, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > ChartRenderer.this.maxEntries;
+            }
+        };
+        FunctionCounter.builder("reports.charts.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("reports.charts.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+    }
+
+    /**
+     * Barras horizontales con los SKU más vendidos; el resto se agrupa en "Otros"
+     */
+    public byte[] skuBarChart(List<UnitsByKey> unitsBySku) {
+        List<UnitsByKey> rows = topWithOthers(unitsBySku, MAX_BARS, "Otros");
+        return cached("sku", rows, () -> drawBars(rows));
+    }
+
+    /**
+     * Torta con la participación de cada sucursal en las unidades vendidas
+     */
+    public byte[] branchPieChart(List<UnitsByKey> unitsByBranch) {
+        List<UnitsByKey> slices = topWithOthers(unitsByBranch, MAX_SLICES, "Otras");
+        return cached("branch", slices, () -> drawPie(slices));
+    }
+
+    private byte[] cached(String kind, List<UnitsByKey> rows, Supplier<byte[]> render) {
+        String key = fingerprint(kind, rows);
+        synchronized (cache) {
+            byte[] png = cache.get(key);
+            if (png != null) {
+                hits.increment();
+                return png;
+            }
+        }
+
+        misses.increment();
+        byte[] png = render.get();
+        synchronized (cache) {
+            cache.put(key, png);
+        }
+        return png;
+    }
+
+    // ==========================================
+    // DIBUJO
+    // ==========================================
+
+    private static byte[] drawBars(List<UnitsByKey> rows) {
+        int rowHeight = 34;
+        BufferedImage image = new BufferedImage(WIDTH, 20 + rows.size() * rowHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = canvas(image);
+
+        long max = rows.stream().mapToLong(UnitsByKey::getUnits).max().orElse(1);
+        int labelWidth = 170;
+        int maxBar = WIDTH - labelWidth - 90;
+        FontMetrics metrics = g.getFontMetrics();
+
+        for (int i = 0; i < rows.size(); i++) {
+            UnitsByKey row = rows.get(i);
+            int y = 10 + i * rowHeight;
+            int barWidth = (int) Math.max(2, Math.round((double) row.getUnits() / Math.max(max, 1) * maxBar));
+            int textY = y + (rowHeight - 8 + metrics.getAscent()) / 2 - 2;
+
+            g.setColor(Color.DARK_GRAY);
+            g.drawString(truncate(row.getKey()), 10, textY);
+            g.setColor(i == 0 ? PALETTE[1] : PALETTE[0]);
+            g.fillRoundRect(labelWidth, y + 4, barWidth, rowHeight - 12, 6, 6);
+            g.setColor(Color.DARK_GRAY);
+            g.drawString(String.format("%,d", row.getUnits()), labelWidth + barWidth + 8, textY);
+        }
+        return png(image, g);
+    }
+
+    private static byte[] drawPie(List<UnitsByKey> slices) {
+        int diameter = 240;
+        BufferedImage image = new BufferedImage(WIDTH, Math.max(diameter + 40, 30 + slices.size() * 26), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = canvas(image);
+
+        long total = Math.max(1, slices.stream().mapToLong(UnitsByKey::getUnits).sum());
+        double start = 90;
+        for (int i = 0; i < slices.size(); i++) {
+            UnitsByKey slice = slices.get(i);
+            double angle = 360.0 * slice.getUnits() / total;
+            Color color = colorOf(slice, i);
+
+            g.setColor(color);
+            g.fillArc(20, 20, diameter, diameter, (int) Math.round(start), -(int) Math.ceil(angle));
+            start -= angle;
+
+            int legendY = 30 + i * 26;
+            g.fillRect(300, legendY, 14, 14);
+            g.setColor(Color.DARK_GRAY);
+            g.drawString(String.format("%s  %,d (%.0f%%)", truncate(slice.getKey()), slice.getUnits(),
+                    100.0 * slice.getUnits() / total), 322, legendY + 12);
+        }
+        g.setColor(Color.WHITE);
+        g.setStroke(new BasicStroke(2));
+        g.drawOval(20, 20, diameter, diameter);
+        return png(image, g);
+    }
+
+    private static Graphics2D canvas(BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setFont(LABEL_FONT);
+        return g;
+    }
+
+    private static byte[] png(BufferedImage image, Graphics2D g) {
+        g.dispose();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo codificar el gráfico", e);
+        }
+    }
+
+    private static Color colorOf(UnitsByKey slice, int index) {
+        return slice.getKey().equals("Otras") ? OTHERS : PALETTE[index % PALETTE.length];
+    }
+
+    // ==========================================
+    // DATOS
+    // ==========================================
+
+    /**
+     * Ordena de mayor a menor (empates por clave, para que la huella sea estable)
+     * y agrupa lo que no entra en un único ítem
+     */
+    static List<UnitsByKey> topWithOthers(List<UnitsByKey> rows, int limit, String othersLabel) {
+        List<UnitsByKey> sorted = rows.stream()
+                .filter(r -> r.getUnits() != null && r.getUnits() > 0)
+                .sorted(Comparator.comparingLong(UnitsByKey::getUnits).reversed().thenComparing(UnitsByKey::getKey))
+                .toList();
+        if (sorted.size() <= limit) {
+            return sorted;
+        }
+
+        List<UnitsByKey> top = new ArrayList<>(sorted.subList(0, limit - 1));
+        long others = sorted.subList(limit - 1, sorted.size()).stream().mapToLong(UnitsByKey::getUnits).sum();
+        top.add(new UnitsByKey(othersLabel, others));
+        return top;
+    }
+
+    private static String truncate(String label) {
+        return label.length() <= 22 ? label : label.substring(0, 21) + "…";
+    }
+
+    private static String fingerprint(String kind, List<UnitsByKey> rows) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(kind.getBytes(StandardCharsets.UTF_8));
+            for (UnitsByKey row : rows) {
+                digest.update((byte) 0);
+                digest.update(row.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Long.toString(row.getUnits()).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
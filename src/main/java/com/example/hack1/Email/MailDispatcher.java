@@ -0,0 +1,262 @@
+package com.example.hack1.Email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cola de salida de correos. Cada conexión SMTP (un hilo de plataforma por conexión, como máximo
+ * reports.limits.smtp) toma hasta batch-size mensajes y los envía con un solo
+ * JavaMailSender.send(MimeMessage...): un handshake STARTTLS + AUTH por lote y no por correo.
+ * Si el lote falla, solo los mensajes que fallaron vuelven a la cola tras un backoff exponencial
+ * con jitter (un temporizador los reencola; la conexión no duerme y sigue con otros lotes).
+ * Quien llama a send() espera a que su mensaje salga (o falle definitivamente).
+ * Métricas: mail.dispatch.queued, mail.dispatch.batches, mail.dispatch.batch.size,
+ * mail.dispatch.sent, mail.dispatch.failed, mail.dispatch.retries
+ */
+@Slf4j
+@Component
+public class MailDispatcher implements DisposableBean {
+
+    private record Pending(MimeMessage message, CompletableFuture<Void> result, int attempt) {
+
+        Pending retry() {
+            return new Pending(message, result, attempt + 1);
+        }
+    }
+
+    private final JavaMailSender mailSender;
+    private final int batchSize;
+    private final long lingerMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final BlockingQueue<Pending> queue;
+    private final ExecutorService connections;
+    private final ScheduledExecutorService retryTimer;
+    private final Set<Pending> waitingRetry = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+
+    private final Counter batches;
+    private final DistributionSummary batchSizes;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter retries;
+
+    public MailDispatcher(JavaMailSender mailSender,
+                          @Value("${reports.limits.smtp:2}") int maxConnections,
+                          @Value("${mail.dispatch.batch-size:50}") int batchSize,
+                          @Value("${mail.dispatch.linger-ms:200}") long lingerMs,
+                          @Value("${mail.dispatch.queue-capacity:10000}") int queueCapacity,
+                          @Value("${mail.dispatch.max-attempts:3}") int maxAttempts,
+                          @Value("${mail.dispatch.retry-backoff-ms:1000}") long retryBackoffMs,
+                          MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("mail.dispatch.queued", queue, BlockingQueue::size).register(meterRegistry);
+        this.batches = Counter.builder("mail.dispatch.batches").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("mail.dispatch.batch.size").register(meterRegistry);
+        this.sent = Counter.builder("mail.dispatch.sent").register(meterRegistry);
+        this.failed = Counter.builder("mail.dispatch.failed").register(meterRegistry);
+        this.retries = Counter.builder("mail.dispatch.retries").register(meterRegistry);
+
+        this.retryTimer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("smtp-retry").daemon().factory());
+        // Hilos de plataforma: Angus SMTPTransport bloquea el socket dentro de un synchronized,
+        // y en un hilo virtual eso fija el carrier y frena a los workers de reportes y SSE
+        this.connections = Executors.newFixedThreadPool(maxConnections,
+                Thread.ofPlatform().name("smtp-", 0).daemon().factory());
+        for (int i = 0; i < maxConnections; i++) {
+            connections.execute(this::dispatchLoop);
+        }
+    }
+
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    /**
+     * Encola el mensaje y espera a que salga en algún lote. Con la cola llena, espera lugar.
+     */
+    public void send(MimeMessage message) {
+        try {
+            submit(message).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof MailException mailException) {
+                throw mailException;
+            }
+            throw new MailSendException("Error enviando email", e.getCause());
+        }
+    }
+
+    public CompletableFuture<Void> submit(MimeMessage message) {
+        if (!running) {
+            throw new MailSendException("El despachador de correos está detenido");
+        }
+        Pending pending = new Pending(message, new CompletableFuture<>(), 1);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrumpido esperando lugar en la cola de correos", e);
+        }
+        return pending.result();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    sendBatch(collectBatch(first));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("❌ Error inesperado en el despacho de correos: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Junta lo que ya está en cola y espera hasta linger-ms a que lleguen más, sin pasar de batch-size
+     */
+    private List<Pending> collectBatch(Pending first) throws InterruptedException {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+        return batch;
+    }
+
+    private void sendBatch(List<Pending> batch) {
+        batches.increment();
+        batchSizes.record(batch.size());
+
+        List<Pending> undelivered;
+        MailException error;
+        try {
+            mailSender.send(batch.stream().map(Pending::message).toArray(MimeMessage[]::new));
+            complete(batch);
+            return;
+        } catch (MailSendException e) {
+            // Solo se reintentan los mensajes que fallaron; el resto ya salió
+            Set<Object> failedMessages = Collections.newSetFromMap(new IdentityHashMap<>());
+            failedMessages.addAll(e.getFailedMessages().keySet());
+
+            undelivered = new ArrayList<>();
+            List<Pending> delivered = new ArrayList<>();
+            for (Pending pending : batch) {
+                if (failedMessages.isEmpty() || failedMessages.contains(pending.message())) {
+                    undelivered.add(pending);
+                } else {
+                    delivered.add(pending);
+                }
+            }
+            complete(delivered);
+            error = e;
+        } catch (MailException e) {
+            // Autenticación o configuración: falla el lote completo
+            undelivered = batch;
+            error = e;
+        }
+
+        log.warn("⚠️ Lote de correos con {} fallos: {}", undelivered.size(), error.getMessage());
+        for (Pending pending : undelivered) {
+            if (pending.attempt() >= maxAttempts) {
+                log.error("❌ Correo no enviado tras {} intentos", pending.attempt());
+                fail(List.of(pending), error);
+            } else {
+                scheduleRetry(pending.retry(), error);
+            }
+        }
+    }
+
+    /**
+     * Reencola el mensaje tras retry-backoff-ms * 2^(intento-2), con jitter entre la mitad y el total
+     */
+    private void scheduleRetry(Pending pending, MailException error) {
+        long delay = retryBackoffMs << Math.min(pending.attempt() - 2, 20);
+        long jittered = delay / 2 + ThreadLocalRandom.current().nextLong(delay - delay / 2 + 1);
+        retries.increment();
+        waitingRetry.add(pending);
+        try {
+            retryTimer.schedule(() -> {
+                waitingRetry.remove(pending);
+                if (!running || !queue.offer(pending)) {
+                    fail(List.of(pending), error);
+                }
+            }, jittered, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            waitingRetry.remove(pending);
+            fail(List.of(pending), error);
+        }
+    }
+
+    private void fail(List<Pending> undelivered, MailException error) {
+        failed.increment(undelivered.size());
+        undelivered.forEach(p -> p.result().completeExceptionally(error));
+    }
+
+    private void complete(List<Pending> delivered) {
+        sent.increment(delivered.size());
+        delivered.forEach(p -> p.result().complete(null));
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        connections.shutdownNow();
+        retryTimer.shutdownNow();
+        waitingRetry.forEach(p -> p.result().completeExceptionally(
+                new MailSendException("Aplicación detenida antes de reintentar el correo")));
+        waitingRetry.clear();
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new MailSendException("Aplicación detenida antes de enviar el correo"));
+        }
+    }
+}
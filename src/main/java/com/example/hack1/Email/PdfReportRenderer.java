@@ -0,0 +1,171 @@
+package com.example.hack1.Email;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.sales.domain.SalesAggregates;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Font;
+import com.lowagie.text.Image;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfWriter;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * PDF del reporte premium con OpenPDF: PdfWriter escribe cada imagen y cada página al
+ * OutputStream en cuanto se cierra, así solo se retiene la página en curso y la memoria
+ * por reporte queda acotada sin importar cuántos se generen a la vez.
+ * Fuentes estándar (Helvetica, sin incrustar) y logo generado una sola vez, compartidos por todos los reportes.
+ */
+@Component
+public class PdfReportRenderer {
+
+    private static final float MARGIN = 40;
+    private static final float CONTENT_WIDTH = PageSize.A4.getWidth() - 2 * MARGIN;
+
+    private static final Font TEXT = new Font(Font.HELVETICA, 11);
+    private static final Font FOOTER = new Font(Font.HELVETICA, 9);
+    private static final Font HEADING = new Font(Font.HELVETICA, 14, Font.BOLD, new Color(0x667eea));
+
+    // Plantilla compartida: cada reporte usa una copia que apunta a los mismos bytes
+    private final Image logo = image(renderLogo());
+
+    /**
+     * Escribe el PDF en un archivo temporal; quien lo llama debe borrarlo después de enviarlo
+     */
+    public Path renderToTempFile(SalesAggregates aggregates, ReportRequestedEvent event,
+                                 byte[] skuChartPng, byte[] branchChartPng) throws IOException {
+        Path file = Files.createTempFile("reporte_" + event.getRequestId() + "_", ".pdf");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            render(aggregates, event, skuChartPng, branchChartPng, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    public void render(SalesAggregates aggregates, ReportRequestedEvent event,
+                       byte[] skuChartPng, byte[] branchChartPng, OutputStream out) throws IOException {
+        Document document = new Document(PageSize.A4, MARGIN, MARGIN, MARGIN, MARGIN);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setPdfVersion(PdfWriter.VERSION_1_4);
+            // Las imágenes que no caben pasan a la página siguiente sin adelantar el texto que sigue
+            writer.setStrictImageSequence(true);
+            // El stream es del llamador
+            writer.setCloseStream(false);
+            document.open();
+
+            document.add(fitted(Image.getInstance(logo)));
+            line(document, TEXT, "Período: " + aggregates.getFrom() + " al " + aggregates.getTo(), 8);
+            line(document, TEXT, "Sucursal: " + (aggregates.getBranch() != null ? aggregates.getBranch() : "Todas"));
+
+            heading(document, "Métricas clave");
+            line(document, TEXT, String.format("Ingresos totales: $%,.2f", aggregates.getTotalRevenue()));
+            line(document, TEXT, String.format("Unidades vendidas: %,d", aggregates.getTotalUnits()));
+            line(document, TEXT, String.format("Total de ventas: %,d", aggregates.getTotalSales()));
+            line(document, TEXT, "Producto más vendido: " + aggregates.getTopSku());
+            line(document, TEXT, "Sucursal líder: " + aggregates.getTopBranch());
+
+            if (skuChartPng != null) {
+                heading(document, "Top productos vendidos");
+                document.add(fitted(image(skuChartPng)));
+            }
+            if (branchChartPng != null) {
+                heading(document, "Distribución por sucursal");
+                document.add(fitted(image(branchChartPng)));
+            }
+
+            heading(document, "Análisis generado por IA");
+            line(document, TEXT, aggregates.getSummary() != null ? aggregates.getSummary() : "");
+
+            line(document, FOOTER, "Solicitado por: " + event.getRequestedBy(), 16);
+            line(document, FOOTER, "ID de solicitud: " + event.getRequestId());
+            line(document, FOOTER, "Este es un documento generado automáticamente.");
+        } catch (DocumentException e) {
+            throw new IOException("No se pudo generar el PDF del reporte " + event.getRequestId(), e);
+        } finally {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+        out.flush();
+    }
+
+    private static void heading(Document document, String text) throws DocumentException {
+        Paragraph heading = new Paragraph(16, text, HEADING);
+        heading.setSpacingBefore(14);
+        heading.setSpacingAfter(6);
+        document.add(heading);
+    }
+
+    private static void line(Document document, Font font, String text) throws DocumentException {
+        line(document, font, text, 0);
+    }
+
+    /**
+     * Párrafo con 5 pt de interlineado; el ajuste de línea usa el ancho real de cada glifo
+     */
+    private static void line(Document document, Font font, String text, float spacingBefore) throws DocumentException {
+        Paragraph paragraph = new Paragraph(font.getSize() + 5, text, font);
+        paragraph.setSpacingBefore(spacingBefore);
+        document.add(paragraph);
+    }
+
+    private static Image fitted(Image image) {
+        image.scaleAbsolute(CONTENT_WIDTH, image.getHeight() * CONTENT_WIDTH / image.getWidth());
+        return image;
+    }
+
+    /**
+     * Los PNG RGB de 8 bits se incrustan con sus datos comprimidos tal cual, sin decodificarlos
+     */
+    private static Image image(byte[] png) {
+        try {
+            return Image.getInstance(png);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la imagen del PDF", e);
+        } catch (DocumentException e) {
+            throw new IllegalArgumentException("Imagen inválida para el PDF", e);
+        }
+    }
+
+    /**
+     * Encabezado con el degradé del correo premium; se dibuja una sola vez por proceso
+     */
+    private static byte[] renderLogo() {
+        BufferedImage image = new BufferedImage(1030, 140, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setPaint(new GradientPaint(0, 0, new Color(0x667eea), 1030, 140, new Color(0x764ba2)));
+        g.fillRect(0, 0, 1030, 140);
+        g.setColor(Color.WHITE);
+        g.setFont(new java.awt.Font(java.awt.Font.SANS_SERIF, java.awt.Font.BOLD, 48));
+        String title = "Reporte Semanal Oreo";
+        g.drawString(title, (1030 - g.getFontMetrics().stringWidth(title)) / 2, 88);
+        g.dispose();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo generar el logo del PDF", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.hack1.Email;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.sales.domain.SalesAggregates;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.Set;
+
+/**
+ * Cuerpos de los correos de reporte a partir de las plantillas de templates/email.
+ * Cada plantilla se parsea una sola vez y queda en la caché del motor (sin TTL), así que por
+ * correo solo se evalúan las expresiones; el CSS y el markup fijos ya están parseados.
+ * th:text escapa SKU, sucursal, resumen y demás valores en el HTML.
+ */
+@Component
+public class ReportEmailRenderer {
+
+    private static final String PREMIUM_TEMPLATE = "premium-report.html";
+    private static final String PLAIN_TEMPLATE = "weekly-report.txt";
+
+    private final SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+
+    public ReportEmailRenderer() {
+        templateEngine.addTemplateResolver(resolver(TemplateMode.HTML, "*.html", 1));
+        templateEngine.addTemplateResolver(resolver(TemplateMode.TEXT, "*.txt", 2));
+    }
+
+    /**
+     * HTML del reporte premium; skuChart/branchChart son el src de cada gráfico o null si no van
+     */
+    public String renderPremium(SalesAggregates aggregates, ReportRequestedEvent event,
+                                String skuChart, String branchChart) {
+        Context context = baseContext(aggregates, event);
+        context.setVariable("revenue", String.format("%.2f", aggregates.getTotalRevenue()));
+        context.setVariable("units", String.valueOf(aggregates.getTotalUnits()));
+        context.setVariable("skuChart", skuChart);
+        context.setVariable("branchChart", branchChart);
+        return templateEngine.process(PREMIUM_TEMPLATE, context);
+    }
+
+    /**
+     * Texto plano del reporte semanal estándar
+     */
+    public String renderPlain(SalesAggregates aggregates, ReportRequestedEvent event) {
+        Context context = baseContext(aggregates, event);
+        context.setVariable("revenue", String.format("%,.2f", aggregates.getTotalRevenue()));
+        context.setVariable("units", String.format("%,d", aggregates.getTotalUnits()));
+        return templateEngine.process(PLAIN_TEMPLATE, context);
+    }
+
+    private static Context baseContext(SalesAggregates aggregates, ReportRequestedEvent event) {
+        Context context = new Context();
+        context.setVariable("from", String.valueOf(aggregates.getFrom()));
+        context.setVariable("to", String.valueOf(aggregates.getTo()));
+        context.setVariable("branch", aggregates.getBranch());
+        context.setVariable("sales", String.valueOf(aggregates.getTotalSales()));
+        context.setVariable("topSku", aggregates.getTopSku());
+        context.setVariable("topBranch", aggregates.getTopBranch());
+        context.setVariable("summary", aggregates.getSummary());
+        context.setVariable("requestedBy", event.getRequestedBy());
+        context.setVariable("requestId", event.getRequestId());
+        return context;
+    }
+
+    private static ClassLoaderTemplateResolver resolver(TemplateMode mode, String pattern, int order) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/email/");
+        resolver.setTemplateMode(mode);
+        resolver.setResolvablePatterns(Set.of(pattern));
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null);
+        resolver.setOrder(order);
+        return resolver;
+    }
+}
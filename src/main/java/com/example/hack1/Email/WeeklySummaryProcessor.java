@@ -0,0 +1,156 @@
+package com.example.hack1.Email;
+
+import com.example.hack1.Config.ReportConcurrencyLimits;
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.report.Service.ReportCoalescer;
+import com.example.hack1.report.Service.ReportProgress;
+import com.example.hack1.report.Service.ReportSnapshotService;
+import com.example.hack1.sales.domain.SalesAggregates;
+import com.example.hack1.sales.Service.SalesService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WeeklySummaryProcessor {
+
+    private final SalesService salesService;
+    private final EmailService emailService;
+    private final ReportConcurrencyLimits limits;
+    private final ReportCoalescer reportCoalescer;
+    private final ReportEmailRenderer reportEmailRenderer;
+    private final ReportSnapshotService reportSnapshotService;
+
+    /**
+     * Lo invoca ReportJobPoller en un hilo virtual del ejecutor de reportes; el escaneo de BD
+     * y el LLM esperan su propio permiso de concurrencia, y el SMTP lo acota MailDispatcher.
+     * Los errores se propagan para que la cola decida si reintentar; progress recibe
+     * el resultado de cada etapa para que GET /api/sales/summary/{requestId} lo muestre.
+     */
+    public void process(ReportRequestedEvent event, ReportProgress progress) {
+        process(event, null, progress);
+    }
+
+    /**
+     * recorded es un resultado ya calculado: el del reporte programado (una sola pasada para
+     * todas las sucursales) o el de un intento anterior que llegó al resumen. En ese caso
+     * solo queda el envío; el premium con gráficos vuelve a escanear (report_jobs no guarda
+     * el desglose) pero reutiliza el resumen, así el reintento nunca repite la llamada al LLM.
+     */
+    public void process(ReportRequestedEvent event, SalesAggregates recorded, ReportProgress progress) {
+        log.info("🔄 Procesando solicitud de reporte: {}", event.getRequestId());
+
+        SalesAggregates aggregates;
+        if (recorded != null) {
+            aggregates = recorded;
+            if (event.isPremium() && event.isIncludeCharts() && recorded.getUnitsBySku() == null) {
+                aggregates = limits.getDbScan().call(() -> salesService.aggregateSales(
+                        event.getFrom(), event.getTo(), event.getBranch()));
+                if (aggregates.getSummary() == null) {
+                    aggregates.setSummary(recorded.getSummary());
+                }
+            }
+            progress.aggregated(aggregates);
+        } else {
+            // Reportes idénticos en vuelo comparten agregación y resumen; cada uno envía su propio email
+            AtomicBoolean leader = new AtomicBoolean(false);
+            SalesAggregates shared = reportCoalescer.coalesce(
+                    ReportCoalescer.keyOf(event.getFrom(), event.getTo(), event.getBranch()),
+                    () -> {
+                        leader.set(true);
+                        return aggregateAndSummarize(event, progress);
+                    });
+
+            aggregates = copyOf(shared);
+            if (!leader.get()) {
+                progress.aggregated(aggregates);
+            }
+        }
+
+        if (event.isPremium()) {
+            log.info("📧 Enviando email premium con gráficos y PDF");
+            emailService.sendPremiumWeeklySummary(aggregates, event);
+        } else {
+            String emailContent = reportEmailRenderer.renderPlain(aggregates, event);
+            log.info("📧 Enviando email a: {}", event.getEmailTo());
+            emailService.sendWeeklySummary(
+                    event.getEmailTo(),
+                    "📊 Resumen Semanal de Ventas - Oreo",
+                    emailContent
+            );
+        }
+
+        log.info("✅ Reporte completado y enviado: {}", event.getRequestId());
+    }
+
+    /**
+     * Un período cerrado sin cambios desde el último cálculo se sirve desde su snapshot,
+     * sin escanear ni llamar al LLM. La clave se toma antes de calcular: si una venta
+     * cambia mientras tanto, el snapshot nuevo queda con una versión que ya nadie pide.
+     */
+    private SalesAggregates aggregateAndSummarize(ReportRequestedEvent event, ReportProgress progress) {
+        ReportSnapshotService.Key key = reportSnapshotService.keyFor(event.getFrom(), event.getTo(), event.getBranch());
+        if (key != null) {
+            Optional<SalesAggregates> snapshot = reportSnapshotService.find(key, event.getBranch());
+            if (snapshot.isPresent()) {
+                log.info("📸 Reporte servido desde snapshot: {} al {}", event.getFrom(), event.getTo());
+                progress.aggregated(snapshot.get());
+                return snapshot.get();
+            }
+        }
+
+        log.info("📊 Calculando agregados...");
+        SalesAggregates aggregates = limits.getDbScan().call(() -> salesService.aggregateSales(
+                event.getFrom(),
+                event.getTo(),
+                event.getBranch()
+        ));
+        progress.aggregated(aggregates);
+
+        if (aggregates.getSummary() == null) {
+            aggregates.setSummary(limits.getLlm().call(() -> salesService.summarize(aggregates)));
+            progress.summarized(aggregates.getSummary());
+            log.info("✅ Resumen generado con IA");
+        }
+        if (key != null) {
+            reportSnapshotService.save(key, aggregates);
+        }
+        return aggregates;
+    }
+
+    /**
+     * Cada reporte trabaja sobre su propia copia del resultado compartido
+     */
+    private static SalesAggregates copyOf(SalesAggregates source) {
+        return new SalesAggregates(source.getTotalSales(), source.getTotalUnits(), source.getTotalRevenue(),
+                source.getTopSku(), source.getTopBranch(), source.getFrom(), source.getTo(),
+                source.getBranch(), source.getSummary(), source.getUnitsBySku(), source.getUnitsByBranch());
+    }
+
+    /**
+     * Aviso al solicitante cuando el reporte falló definitivamente
+     */
+    public void sendErrorEmail(String to, String requestId, String errorMessage) {
+        try {
+            String errorContent = String.format("""
+                ❌ ERROR AL GENERAR RESUMEN SEMANAL
+                
+                Lo sentimos, hubo un error al generar el resumen semanal solicitado.
+                
+                ID de solicitud: %s
+                Error: %s
+                
+                Por favor, intente nuevamente o contacte al administrador.
+                """, requestId, errorMessage);
+
+            emailService.sendWeeklySummary(to, "❌ Error - Resumen Semanal", errorContent);
+        } catch (Exception e) {
+            log.error("❌ No se pudo enviar email de error: {}", e.getMessage());
+        }
+    }
+}
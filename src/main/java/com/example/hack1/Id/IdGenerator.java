@@ -0,0 +1,10 @@
+package com.example.hack1.Id;
+
+/**
+ * Estrategia de generación de claves primarias con prefijo (s_, u_, ...).
+ * Las implementaciones deben producir ids únicos entre nodos sin coordinación
+ * y ordenables por tiempo, para que los inserts caigan al final del índice B-tree.
+ */
+public interface IdGenerator {
+    String nextId(String prefix);
+}
@@ -0,0 +1,17 @@
+package com.example.hack1.Id;
+
+/**
+ * Generador de ids compartido por {@link PrefixedId} y los requestId de reportes: ULID fijo,
+ * una sola instancia por proceso para que los ids de un nodo sean monótonos.
+ */
+public final class IdGenerators {
+
+    private static final IdGenerator CURRENT = new UlidIdGenerator();
+
+    private IdGenerators() {
+    }
+
+    public static IdGenerator current() {
+        return CURRENT;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.hack1.Id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Genera el @Id al persistir con el prefijo indicado ("s_", "u_") + un id ordenable por tiempo.
+ *
+ * Migración: los ids existentes (formato s_NN + 16 hex) siguen siendo válidos y no se reescriben;
+ * ambos formatos caben en la columna de 50 caracteres. Solo los inserts nuevos usan el nuevo formato,
+ * que siempre va al extremo derecho del índice. Para compactar el índice fragmentado por los ids
+ * aleatorios históricos basta un REINDEX INDEX CONCURRENTLY sobre la PK de sales y users.
+ */
+@IdGeneratorType(PrefixedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PrefixedId {
+    String value();
+}
@@ -0,0 +1,35 @@
+package com.example.hack1.Id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+/**
+ * Generador de Hibernate detrás de {@link PrefixedId}. Respeta los ids asignados a mano.
+ */
+public class PrefixedIdGenerator implements BeforeExecutionGenerator {
+
+    private final String prefix;
+
+    public PrefixedIdGenerator(PrefixedId config) {
+        this.prefix = config.value();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return currentValue != null ? currentValue : IdGenerators.current().nextId(prefix);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.hack1.Id;
+
+import java.security.SecureRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ULID monotónico: 48 bits de milisegundos + 80 bits aleatorios, codificados en
+ * 26 caracteres Crockford base32 (orden lexicográfico = orden temporal).
+ * Dentro del mismo milisegundo se incrementa la parte aleatoria, así los ids de
+ * un nodo son estrictamente crecientes aunque el reloj retroceda.
+ * La codificación escribe directo sobre un char[]: una sola asignación por id.
+ */
+public class UlidIdGenerator implements IdGenerator {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int TIME_CHARS = 10;
+    private static final int RANDOM_CHARS = 16;
+    private static final long RANDOM_HI_MASK = 0xFFFFL;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long lastMillis = -1;
+    private long randomHi;  // 16 bits altos de la parte aleatoria
+    private long randomLo;  // 64 bits bajos de la parte aleatoria
+
+    @Override
+    public String nextId(String prefix) {
+        long millis;
+        long hi;
+        long lo;
+
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                randomHi = random.nextLong() & RANDOM_HI_MASK;
+                randomLo = random.nextLong();
+            } else if (++randomLo == 0) {
+                randomHi = (randomHi + 1) & RANDOM_HI_MASK;
+                if (randomHi == 0) {
+                    lastMillis++;  // se agotaron los 80 bits en este milisegundo
+                }
+            }
+            millis = lastMillis;
+            hi = randomHi;
+            lo = randomLo;
+        } finally {
+            lock.unlock();
+        }
+
+        int offset = prefix.length();
+        char[] out = new char[offset + TIME_CHARS + RANDOM_CHARS];
+        prefix.getChars(0, offset, out, 0);
+
+        for (int i = offset + TIME_CHARS - 1; i >= offset; i--) {
+            out[i] = ALPHABET[(int) (millis & 31)];
+            millis >>>= 5;
+        }
+        for (int i = out.length - 1; i >= offset + TIME_CHARS; i--) {
+            out[i] = ALPHABET[(int) (lo & 31)];
+            lo = (lo >>> 5) | (hi << 59);
+            hi >>>= 5;
+        }
+        return new String(out);
+    }
+}
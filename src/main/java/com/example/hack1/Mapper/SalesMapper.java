@@ -0,0 +1,26 @@
+package com.example.hack1.Mapper;
+
+import com.example.hack1.DTO.Response.SaleResponseDTO;
+import com.example.hack1.sales.domain.Sales;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.time.Instant;
+
+/**
+ * Sales -> SaleResponseDTO generado en compilación por MapStruct (SalesMapperImpl):
+ * getters/setters directos, sin reflexión ni TypeMap en tiempo de ejecución.
+ * Si el DTO gana un campo que no se mapea, el build falla (unmappedTargetPolicy = ERROR).
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface SalesMapper {
+
+    SaleResponseDTO toResponse(Sales sale);
+
+    /**
+     * soldAt viaja como ISO-8601, igual que en las proyecciones JPQL
+     */
+    default String toIsoString(Instant instant) {
+        return instant != null ? instant.toString() : null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.hack1.Mapper;
+
+import com.example.hack1.DTO.Response.UserResponseDTO;
+import com.example.hack1.User.domain.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * User -> UserResponseDTO generado en compilación por MapStruct (UserMapperImpl).
+ * El password nunca se copia: UserResponseDTO no tiene ese campo.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface UserMapper {
+
+    UserResponseDTO toResponse(User user);
+}
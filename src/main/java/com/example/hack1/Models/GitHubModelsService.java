@@ -1,20 +1,45 @@
 package com.example.hack1.Models;
 
-import com.example.hack1.Exception.BadRequestException;
+import com.example.hack1.Config.CircuitBreaker;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class GitHubModelsService {
 
+    static final String SYSTEM_PROMPT =
+            "Eres un analista que escribe resúmenes breves y claros para emails corporativos.";
+    static final int MAX_TOKENS = 200;
+    static final double TEMPERATURE = 0.7;
+    private static final String BATCH_INSTRUCTIONS =
+            "Para cada entrada escribe un resumen ≤120 palabras para enviar por email. " +
+                    "Responde solo con JSON de la forma {\"summaries\":[{\"id\":\"<id>\",\"summary\":\"<texto>\"}]}, " +
+                    "con exactamente un elemento por id.\n";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    // Cada llamada corre en su propio hilo virtual para poder cortarla al vencer el plazo
+    private static final ExecutorService CALL_EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("github-models-", 0).factory());
+
     @Value("${github.token}")
     private String token;
 
@@ -24,24 +49,246 @@ public class GitHubModelsService {
     @Value("${github.model.id}")
     private String model;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${github.models.deadline-ms:20000}")
+    private long deadlineMs;
+
+    @Value("${github.models.batch.token-budget:4000}")
+    private int batchTokenBudget;
+
+    @Value("${github.models.batch.deadline-ms:60000}")
+    private long batchDeadlineMs;
+
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final SummaryCache summaryCache;
 
     public String generateSummary(int totalUnits, double totalRevenue, String topSku, String topBranch) {
 
-        String userPrompt = String.format(
-                "Con estos datos: totalUnits=%d, totalRevenue=%.2f, topSku=%s, topBranch=%s. " +
-                        "Devuelve un resumen ≤120 palabras para enviar por email.",
-                totalUnits, totalRevenue, topSku, topBranch
-        );
+        String userPrompt = summaryPrompt(totalUnits, totalRevenue, topSku, topBranch);
+
+        String cacheKey = cacheKeyFor(userPrompt);
+        String cached = summaryCache.get(cacheKey);
+        if (cached != null) {
+            log.info("♻️ Resumen servido desde caché");
+            return cached;
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            log.warn("🚧 GitHub Models no disponible (circuito abierto), usando fallback");
+            return generateFallbackSummary(totalUnits, totalRevenue, topSku, topBranch);
+        }
+
+        long start = System.nanoTime();
+        String content = requestCompletionWithin(SYSTEM_PROMPT, userPrompt, MAX_TOKENS, deadlineMs);
+        if (content == null) {
+            circuitBreaker.onFailure();
+            // El fallback no se cachea: el próximo reporte vuelve a intentar con el modelo
+            log.info("📝 Usando resumen generado localmente como fallback");
+            return generateFallbackSummary(totalUnits, totalRevenue, topSku, topBranch);
+        }
+
+        circuitBreaker.onSuccess();
+        summaryCache.put(cacheKey, content, (System.nanoTime() - start) / 1_000_000);
+        return content;
+    }
+
+    // ==========================================
+    // RESÚMENES EN LOTE: varias sucursales en una sola llamada
+    // ==========================================
+
+    /**
+     * Resume varios reportes empaquetándolos en pocos prompts estructurados.
+     * Cada lote respeta github.models.batch.token-budget (prompt + respuesta estimados);
+     * las entradas que el modelo no devuelve o que no se pueden leer se resumen una por una
+     * con generateSummary. El resultado respeta el orden de inputs.
+     */
+    public List<String> generateSummaries(List<SummaryInput> inputs) {
+        String[] results = new String[inputs.size()];
+        List<Integer> pending = new ArrayList<>();
+
+        for (int i = 0; i < inputs.size(); i++) {
+            results[i] = cachedSummary(inputs.get(i));
+            if (results[i] == null) {
+                pending.add(i);
+            }
+        }
+
+        List<List<Integer>> batches = packBatches(inputs, pending);
+        log.info("📦 Resumiendo {} reportes ({} desde caché) en {} llamadas al modelo",
+                inputs.size(), inputs.size() - pending.size(), batches.size());
+
+        for (List<Integer> batch : batches) {
+            Map<String, String> parsed = batch.size() > 1 ? requestBatch(inputs, batch) : Map.of();
+            for (int n = 0; n < batch.size(); n++) {
+                int index = batch.get(n);
+                SummaryInput input = inputs.get(index);
+                String summary = parsed.get(String.valueOf(n + 1));
+                if (summary != null) {
+                    results[index] = summary;
+                } else {
+                    results[index] = generateSummary(input.totalUnits(), input.totalRevenue(),
+                            input.topSku(), input.topBranch());
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Agrupa las entradas pendientes sin pasarse del presupuesto de tokens por lote
+     */
+    private List<List<Integer>> packBatches(List<SummaryInput> inputs, List<Integer> pending) {
+        int overhead = estimateTokens(SYSTEM_PROMPT) + estimateTokens(BATCH_INSTRUCTIONS);
+        List<List<Integer>> batches = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int used = overhead;
+
+        for (int index : pending) {
+            int cost = estimateTokens(batchLine(current.size() + 1, inputs.get(index))) + MAX_TOKENS;
+            if (!current.isEmpty() && used + cost > batchTokenBudget) {
+                batches.add(current);
+                current = new ArrayList<>();
+                used = overhead;
+            }
+            current.add(index);
+            used += cost;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    /**
+     * Una llamada para todo el lote. Devuelve id -> resumen con las entradas que se pudieron
+     * leer (vacío si la llamada falló); las que sí vinieron se guardan en la caché individual.
+     */
+    private Map<String, String> requestBatch(List<SummaryInput> inputs, List<Integer> batch) {
+        if (!circuitBreaker.tryAcquire()) {
+            return Map.of();
+        }
+
+        StringBuilder userPrompt = new StringBuilder(BATCH_INSTRUCTIONS);
+        for (int n = 0; n < batch.size(); n++) {
+            userPrompt.append(batchLine(n + 1, inputs.get(batch.get(n)))).append('\n');
+        }
 
+        long start = System.nanoTime();
+        String content = requestCompletionWithin(SYSTEM_PROMPT, userPrompt.toString(),
+                MAX_TOKENS * batch.size(), batchDeadlineMs);
+        if (content == null) {
+            circuitBreaker.onFailure();
+            return Map.of();
+        }
+        circuitBreaker.onSuccess();
+
+        Map<String, String> parsed = parseBatch(content);
+        long millisPerEntry = (System.nanoTime() - start) / 1_000_000 / batch.size();
+        for (int n = 0; n < batch.size(); n++) {
+            String summary = parsed.get(String.valueOf(n + 1));
+            if (summary != null) {
+                summaryCache.put(cacheKeyFor(inputs.get(batch.get(n))), summary, millisPerEntry);
+            }
+        }
+        if (parsed.size() < batch.size()) {
+            log.warn("⚠️ El lote devolvió {} de {} resúmenes; el resto se pide por separado", parsed.size(), batch.size());
+        }
+        return parsed;
+    }
+
+    private static Map<String, String> parseBatch(String content) {
+        Map<String, String> parsed = new HashMap<>();
+        int start = content.indexOf('{');
+        int end = content.lastIndexOf('}');
+        if (start < 0 || end <= start) {
+            return parsed;
+        }
+        try {
+            // Tolera texto o bloques ```json alrededor del objeto
+            JsonNode summaries = JSON.readTree(content.substring(start, end + 1)).path("summaries");
+            for (JsonNode item : summaries) {
+                String id = item.path("id").asText();
+                String summary = item.path("summary").asText();
+                if (!id.isBlank() && !summary.isBlank()) {
+                    parsed.putIfAbsent(id, summary);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Respuesta de lote ilegible: {}", e.getMessage());
+        }
+        return parsed;
+    }
+
+    private static String batchLine(int id, SummaryInput input) {
+        return "id=" + id + ": " + describe(input.totalUnits(), input.totalRevenue(), input.topSku(), input.topBranch());
+    }
+
+    private static String describe(int totalUnits, double totalRevenue, String topSku, String topBranch) {
+        return String.format("totalUnits=%d, totalRevenue=%.2f, topSku=%s, topBranch=%s",
+                totalUnits, totalRevenue, topSku, topBranch);
+    }
+
+    /**
+     * Aproximación de ~4 caracteres por token, suficiente para dimensionar lotes
+     */
+    private static int estimateTokens(String text) {
+        return text.length() / 4 + 1;
+    }
+
+    static String summaryPrompt(int totalUnits, double totalRevenue, String topSku, String topBranch) {
+        return String.format("Con estos datos: %s. Devuelve un resumen ≤120 palabras para enviar por email.",
+                describe(totalUnits, totalRevenue, topSku, topBranch));
+    }
+
+    /**
+     * Resumen ya generado para estos datos, o null
+     */
+    String cachedSummary(SummaryInput input) {
+        return summaryCache.get(cacheKeyFor(input));
+    }
+
+    private String cacheKeyFor(SummaryInput input) {
+        return cacheKeyFor(summaryPrompt(input.totalUnits(), input.totalRevenue(), input.topSku(), input.topBranch()));
+    }
+
+    private String cacheKeyFor(String userPrompt) {
+        return SummaryCache.fingerprint(model, SYSTEM_PROMPT, userPrompt, MAX_TOKENS, TEMPERATURE);
+    }
+
+    /**
+     * Plazo total por resumen (conexión + espera + lectura del cuerpo); al vencer se
+     * interrumpe la llamada y se devuelve null
+     */
+    private String requestCompletionWithin(String systemPrompt, String userPrompt, int maxTokens, long timeoutMs) {
+        Future<String> call = CALL_EXECUTOR.submit(() -> requestCompletion(systemPrompt, userPrompt, maxTokens));
+        try {
+            return call.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            log.error("⏱️ GitHub Models no respondió dentro del plazo de {} ms", timeoutMs);
+            return null;
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.error("❌ Error al llamar a GitHub Models: {}", e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Texto devuelto por el modelo, o null si la llamada falló o la respuesta no trae contenido
+     */
+    private String requestCompletion(String systemPrompt, String userPrompt, int maxTokens) {
         Map<String, Object> body = new HashMap<>();
         body.put("model", model);
         body.put("messages", List.of(
-                Map.of("role", "system", "content", "Eres un analista que escribe resúmenes breves y claros para emails corporativos."),
+                Map.of("role", "system", "content", systemPrompt),
                 Map.of("role", "user", "content", userPrompt)
         ));
-        body.put("max_tokens", 200);
-        body.put("temperature", 0.7);
+        body.put("max_tokens", maxTokens);
+        body.put("temperature", TEMPERATURE);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -67,22 +314,31 @@ public class GitHubModelsService {
                 if (!choices.isEmpty()) {
                     Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
                     String content = (String) message.get("content");
-                    log.info("✅ Resumen generado exitosamente con IA");
-                    return content;
+                    if (content != null && !content.isBlank()) {
+                        log.info("✅ Resumen generado exitosamente con IA");
+                        return content;
+                    }
                 }
             }
 
             log.warn("⚠️ Respuesta inesperada de GitHub Models, usando fallback");
-            return generateFallbackSummary(totalUnits, totalRevenue, topSku, topBranch);
+            return null;
 
         } catch (Exception e) {
             log.error("❌ Error al llamar a GitHub Models: {}", e.getMessage());
-            log.info("📝 Usando resumen generado localmente como fallback");
-            return generateFallbackSummary(totalUnits, totalRevenue, topSku, topBranch);
+            return null;
         }
     }
 
-    private String generateFallbackSummary(int totalUnits, double totalRevenue, String topSku, String topBranch) {
+    /**
+     * true si el texto es el resumen de respaldo (el modelo no respondió); no debe persistirse
+     */
+    public static boolean isFallbackSummary(SummaryInput input, String summary) {
+        return generateFallbackSummary(input.totalUnits(), input.totalRevenue(), input.topSku(), input.topBranch())
+                .equals(summary);
+    }
+
+    static String generateFallbackSummary(int totalUnits, double totalRevenue, String topSku, String topBranch) {
         return String.format(
                 "Durante el período analizado se vendieron %,d unidades, generando ingresos totales de $%,.2f. " +
                         "El producto más vendido fue '%s', destacándose como el favorito de los clientes. " +
@@ -91,4 +347,4 @@ public class GitHubModelsService {
                 totalUnits, totalRevenue, topSku, topBranch
         );
     }
-}
\ No newline at end of file
+}
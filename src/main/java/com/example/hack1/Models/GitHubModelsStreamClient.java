@@ -0,0 +1,188 @@
+package com.example.hack1.Models;
+
+import com.example.hack1.Config.CircuitBreaker;
+import com.example.hack1.Config.ConcurrencyLimiter;
+import com.example.hack1.Config.ReportConcurrencyLimits;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Chat completion con stream=true: entrega cada fragmento de texto en cuanto llega.
+ * La respuesta se lee línea a línea (eventos "data: {...}"), así que por conexión solo
+ * se retiene la línea en curso; el texto completo nunca se acumula en el servidor.
+ * Cada llamada al modelo ocupa un permiso de reports.limits.llm, el mismo que usan los
+ * reportes: una ráfaga de espectadores no multiplica las llamadas concurrentes al modelo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GitHubModelsStreamClient {
+
+    private static final String DATA_PREFIX = "data:";
+    private static final String DONE = "[DONE]";
+
+    @Value("${github.token}")
+    private String token;
+
+    @Value("${github.models.endpoint}")
+    private String endpoint;
+
+    @Value("${github.model.id}")
+    private String model;
+
+    @Value("${github.models.read-timeout-ms:15000}")
+    private long readTimeoutMs;
+
+    private final HttpClient httpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final GitHubModelsService gitHubModelsService;
+    private final ObjectMapper objectMapper;
+    private final ReportConcurrencyLimits limits;
+
+    /**
+     * Resume los datos enviando el texto por fragmentos a onChunk. Si el resumen está en caché,
+     * el circuito está abierto o el modelo falla antes de empezar, se entrega completo en un
+     * solo fragmento (caché o fallback). Un fallo a mitad del stream se propaga.
+     */
+    public void streamSummary(SummaryInput input, Consumer<String> onChunk) throws IOException, InterruptedException {
+        String cached = gitHubModelsService.cachedSummary(input);
+        if (cached != null) {
+            onChunk.accept(cached);
+            return;
+        }
+
+        String fallback = GitHubModelsService.generateFallbackSummary(
+                input.totalUnits(), input.totalRevenue(), input.topSku(), input.topBranch());
+        // Mismo orden que WeeklySummaryProcessor: primero el permiso, después el circuito,
+        // así la llamada de prueba en semiabierto no espera detrás de los demás permisos
+        try (ConcurrencyLimiter.Permit permit = limits.getLlm().acquirePermit()) {
+            if (!circuitBreaker.tryAcquire()) {
+                log.warn("🚧 GitHub Models no disponible (circuito abierto), usando fallback");
+                onChunk.accept(fallback);
+                return;
+            }
+            try {
+                streamFromModel(input, onChunk, fallback);
+            } finally {
+                circuitBreaker.releaseProbe();
+            }
+        }
+    }
+
+    private void streamFromModel(SummaryInput input, Consumer<String> onChunk, String fallback)
+            throws IOException, InterruptedException {
+        HttpResponse<Stream<String>> response;
+        try {
+            response = httpClient.send(buildRequest(input), HttpResponse.BodyHandlers.ofLines());
+        } catch (IOException e) {
+            circuitBreaker.onFailure();
+            log.error("❌ Error al abrir el stream de GitHub Models: {}", e.getMessage());
+            onChunk.accept(fallback);
+            return;
+        } catch (InterruptedException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+
+        boolean anyContent = false;
+        RuntimeException consumerError = null;
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() != 200) {
+                circuitBreaker.onFailure();
+                log.error("❌ GitHub Models respondió {} al stream", response.statusCode());
+                onChunk.accept(fallback);
+                return;
+            }
+
+            for (String line : (Iterable<String>) lines::iterator) {
+                if (!line.startsWith(DATA_PREFIX)) {
+                    continue;
+                }
+                String payload = line.substring(DATA_PREFIX.length()).trim();
+                if (DONE.equals(payload)) {
+                    break;
+                }
+                String chunk = deltaContent(payload);
+                if (chunk == null || chunk.isEmpty()) {
+                    continue;
+                }
+                anyContent = true;
+                try {
+                    onChunk.accept(chunk);
+                } catch (RuntimeException e) {
+                    // El cliente se fue: cerrar el stream corta también la lectura del modelo
+                    consumerError = e;
+                    break;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            circuitBreaker.onFailure();
+            throw e.getCause();
+        }
+
+        if (consumerError != null) {
+            circuitBreaker.onSuccess();
+            throw consumerError;
+        }
+        if (!anyContent) {
+            circuitBreaker.onFailure();
+            onChunk.accept(fallback);
+            return;
+        }
+        circuitBreaker.onSuccess();
+    }
+
+    private HttpRequest buildRequest(SummaryInput input) throws IOException {
+        Map<String, Object> body = Map.of(
+                "model", model,
+                "messages", List.of(
+                        Map.of("role", "system", "content", GitHubModelsService.SYSTEM_PROMPT),
+                        Map.of("role", "user", "content", GitHubModelsService.summaryPrompt(
+                                input.totalUnits(), input.totalRevenue(), input.topSku(), input.topBranch()))
+                ),
+                "max_tokens", GitHubModelsService.MAX_TOKENS,
+                "temperature", GitHubModelsService.TEMPERATURE,
+                "stream", true
+        );
+
+        return HttpRequest.newBuilder(URI.create(endpoint + "/chat/completions"))
+                // Plazo hasta recibir las cabeceras; el cuerpo fluye mientras el modelo escribe
+                .timeout(Duration.ofMillis(readTimeoutMs))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .header("Authorization", "Bearer " + token)
+                .header("extra-parameters", "pass-through")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private String deltaContent(String payload) {
+        try {
+            JsonNode choices = objectMapper.readTree(payload).path("choices");
+            if (choices.isEmpty()) {
+                return null;
+            }
+            JsonNode content = choices.get(0).path("delta").path("content");
+            return content.isTextual() ? content.asText() : null;
+        } catch (IOException e) {
+            log.warn("⚠️ Evento de stream ilegible: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.hack1.Models;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de resúmenes del LLM direccionada por contenido: la clave es el SHA-256 de
+ * todo lo que determina la respuesta (modelo, prompts y parámetros de generación).
+ * Nivel en memoria LRU con TTL y, opcionalmente, un nivel en disco (un archivo por clave)
+ * que sobrevive reinicios. Solo se guardan respuestas reales del modelo, nunca el fallback.
+ * Métricas: llm.summary.cache.hits{tier}, llm.summary.cache.misses, llm.summary.cache.evictions,
+ * llm.summary.cache.size, llm.summary.cache.latency.saved
+ */
+@Slf4j
+@Component
+public class SummaryCache {
+
+    private record Entry(String summary, Instant createdAt, long generationMillis) {
+    }
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Path directory;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter latencySaved;
+
+    public SummaryCache(@Value("${github.models.cache.max-entries:1000}") int maxEntries,
+                        @Value("${github.models.cache.ttl-hours:168}") long ttlHours,
+                        @Value("${github.models.cache.dir:}") String directory,
+                        MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > SummaryCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        if (this.directory != null) {
+            try {
+                Files.createDirectories(this.directory);
+                log.info("💾 Caché de resúmenes en disco: {}", this.directory.toAbsolutePath());
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo crear el directorio de caché " + directory, e);
+            }
+        }
+
+        this.memoryHits = Counter.builder("llm.summary.cache.hits").tag("tier", "memory").register(meterRegistry);
+        this.diskHits = Counter.builder("llm.summary.cache.hits").tag("tier", "disk").register(meterRegistry);
+        this.latencySaved = Counter.builder("llm.summary.cache.latency.saved")
+                .baseUnit("milliseconds")
+                .description("Tiempo de generación que se evitó sirviendo desde caché")
+                .register(meterRegistry);
+        FunctionCounter.builder("llm.summary.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("llm.summary.cache.evictions", evictions, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("llm.summary.cache.size", this, SummaryCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Huella de las entradas del prompt; cada parte se separa con NUL para que
+     * ("ab", "c") y ("a", "bc") no colisionen
+     */
+    public static String fingerprint(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Resumen vigente para la huella, o null si hay que pedirlo al modelo
+     */
+    public String get(String key) {
+        Instant now = Instant.now();
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+            if (cached != null && isExpired(cached, now)) {
+                entries.remove(key);
+                evictions.increment();
+                cached = null;
+            }
+        }
+
+        if (cached != null) {
+            memoryHits.increment();
+            latencySaved.increment(cached.generationMillis());
+            return cached.summary();
+        }
+
+        Entry fromDisk = readFromDisk(key, now);
+        if (fromDisk != null) {
+            synchronized (entries) {
+                entries.put(key, fromDisk);
+            }
+            diskHits.increment();
+            latencySaved.increment(fromDisk.generationMillis());
+            return fromDisk.summary();
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, String summary, long generationMillis) {
+        Entry entry = new Entry(summary, Instant.now(), generationMillis);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        writeToDisk(key, entry);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private boolean isExpired(Entry entry, Instant now) {
+        return entry.createdAt().plus(ttl).isBefore(now);
+    }
+
+    // ==========================================
+    // NIVEL EN DISCO: <huella>.txt, primera línea = ms de generación, resto = resumen
+    // ==========================================
+
+    private Entry readFromDisk(String key, Instant now) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key + ".txt");
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            Instant createdAt = Files.getLastModifiedTime(file).toInstant();
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            int newline = content.indexOf('\n');
+            Entry entry = new Entry(content.substring(newline + 1), createdAt,
+                    Long.parseLong(content.substring(0, newline)));
+            if (isExpired(entry, now)) {
+                Files.deleteIfExists(file);
+                evictions.increment();
+                return null;
+            }
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ Entrada de caché ilegible en {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            // Escritura atómica: otro nodo o un reinicio nunca ven un archivo a medias
+            Path tmp = Files.createTempFile(directory, key, ".tmp");
+            Files.writeString(tmp, entry.generationMillis() + "\n" + entry.summary(), StandardCharsets.UTF_8);
+            Files.move(tmp, directory.resolve(key + ".txt"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("⚠️ No se pudo guardar el resumen en disco: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.hack1.Models;
+
+/**
+ * Datos de un reporte que se envían al modelo para redactar su resumen
+ */
+public record SummaryInput(int totalUnits, double totalRevenue, String topSku, String topBranch) {
+}
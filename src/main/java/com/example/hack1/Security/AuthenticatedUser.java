@@ -0,0 +1,57 @@
+package com.example.hack1.Security;
+
+import com.example.hack1.Exception.UnauthorizedException;
+import com.example.hack1.User.domain.Rol;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Usuario autenticado reconstruido a partir de los claims del JWT.
+ * Se guarda como principal en el SecurityContext, así los servicios conocen
+ * id, rol y sucursal sin consultar la tabla users en cada request.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal {
+
+    private final String id;
+    private final String email;
+    private final String username;
+    private final Rol role;
+    private final String branch;
+
+    /**
+     * Principal del request actual
+     */
+    public static AuthenticatedUser current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new UnauthorizedException("Usuario no autenticado");
+        }
+        return user;
+    }
+
+    public boolean isCentral() {
+        return role == Rol.CENTRAL;
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    /**
+     * Authentication.getName() sigue devolviendo el email, como con UserDetails
+     */
+    @Override
+    public String getName() {
+        return email;
+    }
+}
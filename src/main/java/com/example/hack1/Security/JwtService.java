@@ -1,10 +1,12 @@
 package com.example.hack1.Security;
 
+import com.example.hack1.User.domain.Rol;
+import com.example.hack1.User.domain.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
@@ -14,14 +16,26 @@ import java.util.Map;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_USERNAME = "username";
+    static final String CLAIM_ROLE = "rol";
+    static final String CLAIM_BRANCH = "branch";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
 
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    // La clave HMAC y el parser son inmutables: se construyen una vez y se reutilizan
+    private volatile SecretKey signInKey;
+    private volatile JwtParser parser;
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -31,50 +45,98 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    public String generateToken(UserDetails userDetails, String rol) {
+    /**
+     * El token lleva id, username, rol y sucursal para que el filtro construya
+     * el AuthenticatedUser sin consultar la base de datos
+     */
+    public String generateToken(User user) {
         Map<String, Object> extraClaims = new HashMap<>();
-        extraClaims.put("rol", rol);
-        return generateToken(extraClaims, userDetails);
-    }
-
-    public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        extraClaims.put(CLAIM_USER_ID, user.getId());
+        extraClaims.put(CLAIM_USERNAME, user.getUsername());
+        extraClaims.put(CLAIM_ROLE, user.getRole().name());
+        if (user.getBranch() != null) {
+            extraClaims.put(CLAIM_BRANCH, user.getBranch());
+        }
+        return buildToken(extraClaims, user.getEmail(), jwtExpiration);
     }
 
-    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+    private String buildToken(Map<String, Object> extraClaims, String subject, long expiration) {
         return Jwts.builder()
                 .claims(extraClaims)  // Cambio aquí
-                .subject(userDetails.getUsername())  // Cambio aquí
+                .subject(subject)  // Cambio aquí
                 .issuedAt(new Date(System.currentTimeMillis()))  // Cambio aquí
                 .expiration(new Date(System.currentTimeMillis() + expiration))  // Cambio aquí
                 .signWith(getSignInKey())  // Cambio aquí - ya no necesita SignatureAlgorithm
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    /**
+     * Reconstruye el principal desde claims ya verificados por extractAllClaims
+     * (firma y expiración; si fallan, jjwt lanza JwtException). Los tokens emitidos antes
+     * de incluir los claims de usuario se rechazan: basta con volver a hacer login.
+     */
+    public AuthenticatedUser parseAuthenticatedUser(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            throw new MalformedJwtException("El token no contiene los claims de usuario");
+        }
+        return new AuthenticatedUser(
+                userId,
+                claims.getSubject(),
+                claims.get(CLAIM_USERNAME, String.class),
+                Rol.valueOf(role),
+                claims.get(CLAIM_BRANCH, String.class));
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verificación única por request: si el token ya fue verificado y sigue vigente
+     * se devuelve desde VerifiedTokenCache sin recalcular el HMAC; si no, se parsea una vez.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token);
+        VerifiedToken verified = new VerifiedToken(
+                parseAuthenticatedUser(claims),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+
+        // Sin exp no hay hasta cuándo confiar en el resultado: no se cachea
+        if (verified.getExpiresAt() != null) {
+            verifiedTokenCache.put(token, verified);
+        }
+        return verified;
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()  // Cambio: parserBuilder() -> parser()
-                .verifyWith(getSignInKey())  // Cambio: setSigningKey() -> verifyWith()
-                .build()
+    public Claims extractAllClaims(String token) {
+        return getParser()
                 .parseSignedClaims(token)  // Cambio: parseClaimsJws() -> parseSignedClaims()
                 .getPayload();  // Cambio: getBody() -> getPayload()
     }
 
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser()  // Cambio: parserBuilder() -> parser()
+                    .verifyWith(getSignInKey())  // Cambio: setSigningKey() -> verifyWith()
+                    .build();
+            parser = current;
+        }
+        return current;
+    }
+
     private SecretKey getSignInKey() {  // Cambio: Key -> SecretKey
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey current = signInKey;
+        if (current == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+            current = Keys.hmacShaKeyFor(keyBytes);
+            signInKey = current;
+        }
+        return current;
     }
 
     public Long getExpirationTime() {
@@ -0,0 +1,68 @@
+package com.example.hack1.Security;
+
+import com.example.hack1.User.Repository.TokenRevocationRepository;
+import com.example.hack1.User.domain.TokenRevocation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocación explícita de tokens. Como el filtro JWT ya no consulta la base de datos,
+ * un usuario eliminado conservaría acceso hasta que su token expire: aquí se registra
+ * el instante de revocación por usuario y se rechaza todo token emitido antes.
+ * Las revocaciones se guardan en token_revocations y cada nodo mantiene una copia en
+ * memoria que relee cada jwt.revocations.refresh-ms, así el filtro no consulta la base
+ * por request. Una revocación hecha en otro nodo (o antes de un reinicio) se aplica aquí
+ * a más tardar en ese intervalo. Cada fila se borra cuando ya no puede existir un token
+ * vigente anterior a ella.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final Map<String, Instant> revokedAt = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiration}")
+    private Long jwtExpiration;
+
+    @Transactional
+    public void revokeUser(String userId) {
+        Instant now = Instant.now();
+        tokenRevocationRepository.save(new TokenRevocation(userId, now));
+        revokedAt.put(userId, now);
+        log.info("🔒 Tokens revocados para el usuario: {}", userId);
+    }
+
+    /**
+     * true si el token del usuario fue emitido antes (o en el mismo segundo) de su revocación
+     */
+    public boolean isRevoked(String userId, Instant issuedAt) {
+        Instant revoked = revokedAt.get(userId);
+        return revoked != null && (issuedAt == null || !issuedAt.isAfter(revoked));
+    }
+
+    /**
+     * Trae las revocaciones de todos los nodos y descarta las que ya vencieron.
+     * La primera ejecución ocurre al arrancar el contexto.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocations.refresh-ms:5000}")
+    @Transactional
+    public void refresh() {
+        Instant limit = Instant.now().minusMillis(jwtExpiration);
+        tokenRevocationRepository.deleteExpired(limit);
+        for (TokenRevocation revocation : tokenRevocationRepository.findByRevokedAtAfter(limit)) {
+            revokedAt.merge(revocation.getUserId(), revocation.getRevokedAt(),
+                    (current, stored) -> stored.isAfter(current) ? stored : current);
+        }
+        revokedAt.values().removeIf(revoked -> revoked.isBefore(limit));
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.hack1.Security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Resultado inmutable de verificar un JWT una sola vez: el principal y las marcas
+ * de tiempo que el filtro necesita (revocación y vigencia en caché).
+ */
+@Getter
+@AllArgsConstructor
+public final class VerifiedToken {
+
+    private final AuthenticatedUser user;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.hack1.Security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché LRU acotada de tokens ya verificados: un cliente que repite su token
+ * se salta el HMAC hasta que el token expira.
+ * La clave es el SHA-256 del token, así el bearer token no queda retenido en memoria.
+ * Métricas: jwt.cache.hits, jwt.cache.misses, jwt.cache.evictions, jwt.cache.size, jwt.cache.hit.ratio
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final Map<String, VerifiedToken> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-entries:10000}") int maxEntries, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                if (size() > VerifiedTokenCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        FunctionCounter.builder("jwt.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.evictions", evictions, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("jwt.cache.size", this, VerifiedTokenCache::size).register(meterRegistry);
+        Gauge.builder("jwt.cache.hit.ratio", this, VerifiedTokenCache::hitRatio).register(meterRegistry);
+    }
+
+    /**
+     * Token verificado y vigente, o null si hay que verificarlo de nuevo
+     */
+    public VerifiedToken get(String token) {
+        String key = digest(token);
+        VerifiedToken cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+            if (cached != null && cached.isExpired(Instant.now())) {
+                entries.remove(key);
+                evictions.increment();
+                cached = null;
+            }
+        }
+
+        if (cached == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        String key = digest(token);
+        synchronized (entries) {
+            entries.put(key, verified);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.hack1.User.Repository;
+
+import com.example.hack1.User.domain.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, String> {
+
+    List<TokenRevocation> findByRevokedAtAfter(Instant limit);
+
+    /**
+     * Revocaciones que ya no pueden afectar a ningún token vigente
+     */
+    @Modifying
+    @Query("DELETE FROM TokenRevocation t WHERE t.revokedAt < :limit")
+    int deleteExpired(@Param("limit") Instant limit);
+}
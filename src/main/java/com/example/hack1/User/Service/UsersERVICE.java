@@ -3,16 +3,18 @@ package com.example.hack1.User.Service;
 import com.example.hack1.DTO.Response.UserResponseDTO;
 import com.example.hack1.Exception.ResourceNotFoundException;
 import com.example.hack1.Exception.UnauthorizedException;
+import com.example.hack1.Mapper.UserMapper;
+import com.example.hack1.Security.AuthenticatedUser;
+import com.example.hack1.Security.TokenRevocationService;
 import com.example.hack1.User.Repository.UserRepository;
 import com.example.hack1.User.domain.User;
+import com.example.hack1.report.Service.ReportSnapshotService;
+import com.example.hack1.sales.Service.SalesRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,24 +23,16 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class UsersERVICE {
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
+    private final TokenRevocationService tokenRevocationService;
+    private final SalesRollupService salesRollupService;
+    private final ReportSnapshotService reportSnapshotService;
 
     /**
-     * Obtener el usuario autenticado actual
-     */
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UnauthorizedException("Usuario no autenticado"));
-    }
-
-    /**
-     * Verificar si el usuario es CENTRAL
+     * Verificar si el usuario es CENTRAL (rol tomado del token, sin consultar la base de datos)
      */
     private void validateCentralRole() {
-        User currentUser = getCurrentUser();
-        if (!"CENTRAL".equals(currentUser.getRole().name())) {
+        if (!AuthenticatedUser.current().isCentral()) {
             throw new UnauthorizedException("Solo usuarios CENTRAL pueden acceder a esta función");
         }
     }
@@ -56,7 +50,7 @@ public class UsersERVICE {
         log.info("Listando usuarios - Página: {}, Tamaño: {}, Total: {}",
                 page, size, usersPage.getTotalElements());
 
-        return usersPage.map(user -> modelMapper.map(user, UserResponseDTO.class));
+        return usersPage.map(userMapper::toResponse);
     }
 
     /**
@@ -66,12 +60,12 @@ public class UsersERVICE {
     public UserResponseDTO getUserById(String id) {
         validateCentralRole();
 
-        User user = userRepository.findById(Long.parseLong(id))
+        User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
 
         log.info("Consultando detalle del usuario: {}", user.getUsername());
 
-        return modelMapper.map(user, UserResponseDTO.class);
+        return userMapper.toResponse(user);
     }
 
     /**
@@ -81,17 +75,23 @@ public class UsersERVICE {
     public void deleteUser(String id) {
         validateCentralRole();
 
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = AuthenticatedUser.current();
 
         // No permitir que se elimine a sí mismo
-        if (currentUser.getId().toString().equals(id)) {
+        if (currentUser.getId().equals(id)) {
             throw new UnauthorizedException("No puedes eliminar tu propia cuenta");
         }
 
-        User userToDelete = userRepository.findById(Long.parseLong(id))
+        User userToDelete = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
 
-        userRepository.deleteById(Long.parseLong(id));
+        // Sus ventas se borran en cascada: se restan del rollup y se invalidan los snapshots
+        // de cada (día, sucursal) afectado en esta misma transacción
+        salesRollupService.retractAll(userToDelete.getSales());
+        reportSnapshotService.touchAll(userToDelete.getSales());
+        userRepository.delete(userToDelete);
+        // Sus tokens ya emitidos dejan de ser válidos aunque no hayan expirado
+        tokenRevocationService.revokeUser(id);
 
         log.info("Usuario eliminado: {} por {}", userToDelete.getUsername(), currentUser.getUsername());
     }
@@ -0,0 +1,28 @@
+package com.example.hack1.User.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Último instante de revocación de los tokens de un usuario. Compartido entre nodos:
+ * todo token emitido antes de revokedAt se rechaza en cualquier instancia.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_revoked_at", columnList = "revoked_at")
+})
+public class TokenRevocation {
+
+    @Id
+    @Column(name = "user_id", length = 50)
+    private String userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
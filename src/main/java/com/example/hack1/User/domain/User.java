@@ -1,5 +1,6 @@
 package com.example.hack1.User.domain;
 
+import com.example.hack1.Id.PrefixedId;
 import com.example.hack1.sales.domain.Sales;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -13,7 +14,6 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
-import java.util.UUID;
 
 @Entity
 @Getter
@@ -25,6 +25,7 @@ import java.util.UUID;
 public class User {
 
     @Id
+    @PrefixedId("u_")
     @Column(length = 50)
     private String id;
 
@@ -53,22 +54,4 @@ public class User {
 
     @OneToMany(mappedBy = "createdByUser", cascade = CascadeType.ALL)
     private List<Sales> sales;
-
-
-    @PrePersist
-    public void generateId() {
-        if (this.id == null) {
-            // Generar timestamp de 2 dígitos (01-99)
-            long timestamp = System.currentTimeMillis() % 100;
-
-            // Generar parte aleatoria (16 caracteres)
-            String randomPart = UUID.randomUUID().toString()
-                    .replace("-", "")
-                    .toUpperCase()
-                    .substring(0, 16);
-
-            // Formato: u_XX + random (ejemplo: u_01A1B2C3D4E5F6G7)
-            this.id = String.format("u_%02d%s", timestamp, randomPart);
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package com.example.hack1.report.Controller;
+
+import com.example.hack1.DTO.Request.RedriveRequestDTO;
+import com.example.hack1.DTO.Response.DeadLetterResponseDTO;
+import com.example.hack1.DTO.Response.RedriveResponseDTO;
+import com.example.hack1.report.Service.ReportJobService;
+import com.example.hack1.report.domain.ReportJobStatus;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/reports")
+@RequiredArgsConstructor
+public class ReportAdminController {
+
+    private static final int DEFAULT_REDRIVE_LIMIT = 100;
+
+    private final ReportJobService reportJobService;
+
+    /**
+     * GET /api/admin/reports/dead-letters
+     * Reportes que agotaron sus reintentos, los más recientes primero
+     * Query params: stage (opcional), page, size
+     * Solo CENTRAL
+     */
+    @GetMapping("/dead-letters")
+    @PreAuthorize("hasAuthority('CENTRAL')")
+    public ResponseEntity<Page<DeadLetterResponseDTO>> listDeadLetters(
+            @RequestParam(required = false) ReportJobStatus stage,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(reportJobService.listDeadLetters(stage, page, size));
+    }
+
+    /**
+     * POST /api/admin/reports/dead-letters/redrive
+     * Vuelve a encolar en bloque los reportes indicados, o los más antiguos hasta limit
+     * Solo CENTRAL
+     */
+    @PostMapping("/dead-letters/redrive")
+    @PreAuthorize("hasAuthority('CENTRAL')")
+    public ResponseEntity<RedriveResponseDTO> redrive(@Valid @RequestBody RedriveRequestDTO request) {
+        int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_REDRIVE_LIMIT;
+        int redriven = reportJobService.redrive(request.getRequestIds(), request.getStage(), limit);
+        return ResponseEntity.ok(new RedriveResponseDTO(redriven));
+    }
+}
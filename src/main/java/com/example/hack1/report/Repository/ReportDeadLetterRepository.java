@@ -0,0 +1,12 @@
+package com.example.hack1.report.Repository;
+
+import com.example.hack1.report.domain.ReportDeadLetter;
+import com.example.hack1.report.domain.ReportJobStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReportDeadLetterRepository extends JpaRepository<ReportDeadLetter, String> {
+
+    Page<ReportDeadLetter> findByStage(ReportJobStatus stage, Pageable pageable);
+}
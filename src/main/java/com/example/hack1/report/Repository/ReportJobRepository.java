@@ -0,0 +1,94 @@
+package com.example.hack1.report.Repository;
+
+import com.example.hack1.report.domain.ReportJob;
+import com.example.hack1.report.domain.ReportServiceTime;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+
+    String IN_PROGRESS = "j.status IN (" +
+            "com.example.hack1.report.domain.ReportJobStatus.AGGREGATING, " +
+            "com.example.hack1.report.domain.ReportJobStatus.SUMMARIZING, " +
+            "com.example.hack1.report.domain.ReportJobStatus.EMAILING) ";
+
+    // ==========================================
+    // RECLAMO DE TRABAJOS (multi-nodo)
+    // ==========================================
+
+    /**
+     * Trabajos listos para correr: en cola y disponibles, o en curso con el lease vencido
+     * (su nodo murió o quedó colgado). lock.timeout = -2 es SKIP LOCKED: dos nodos que
+     * reclaman a la vez se reparten filas distintas en lugar de esperarse.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM ReportJob j " +
+            "WHERE (j.status = com.example.hack1.report.domain.ReportJobStatus.QUEUED AND j.availableAt <= :now) " +
+            "OR (" + IN_PROGRESS + "AND j.leaseUntil < :now) " +
+            "ORDER BY j.availableAt")
+    List<ReportJob> findClaimable(@Param("now") Instant now, Pageable limit);
+
+    /**
+     * Igual que findClaimable pero de un solo carril (premium o estándar)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM ReportJob j WHERE j.premium = :premium AND (" +
+            "(j.status = com.example.hack1.report.domain.ReportJobStatus.QUEUED AND j.availableAt <= :now) " +
+            "OR (" + IN_PROGRESS + "AND j.leaseUntil < :now)) " +
+            "ORDER BY j.availableAt")
+    List<ReportJob> findClaimableInLane(@Param("premium") boolean premium, @Param("now") Instant now,
+                                        Pageable limit);
+
+    // ==========================================
+    // PROFUNDIDAD Y TIEMPO DE SERVICIO POR CARRIL (ETA)
+    // ==========================================
+
+    @Query("SELECT COUNT(j) FROM ReportJob j WHERE j.premium = :premium " +
+            "AND ((j.status = com.example.hack1.report.domain.ReportJobStatus.QUEUED AND j.availableAt <= :now) " +
+            "OR " + IN_PROGRESS + ")")
+    long countPending(@Param("premium") boolean premium, @Param("now") Instant now);
+
+    /**
+     * Nodos con al menos un lease vigente; los nodos ociosos no aparecen
+     */
+    @Query("SELECT COUNT(DISTINCT j.lockedBy) FROM ReportJob j WHERE " + IN_PROGRESS + "AND j.leaseUntil >= :now")
+    long countLiveNodes(@Param("now") Instant now);
+
+    @Query("SELECT new com.example.hack1.report.domain.ReportServiceTime(j.startedAt, j.finishedAt) " +
+            "FROM ReportJob j WHERE j.premium = :premium " +
+            "AND j.status = com.example.hack1.report.domain.ReportJobStatus.DONE " +
+            "AND j.startedAt IS NOT NULL AND j.finishedAt IS NOT NULL " +
+            "ORDER BY j.finishedAt DESC")
+    List<ReportServiceTime> findRecentServiceTimes(@Param("premium") boolean premium, Pageable limit);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.leaseUntil = :leaseUntil " +
+            "WHERE j.id IN :ids AND j.lockedBy = :node " +
+            "AND " + IN_PROGRESS)
+    int extendLeases(@Param("ids") Collection<String> ids, @Param("node") String node,
+                     @Param("leaseUntil") Instant leaseUntil);
+
+    // ==========================================
+    // CIERRE (solo si el nodo conserva el trabajo)
+    // ==========================================
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = com.example.hack1.report.domain.ReportJobStatus.DONE, " +
+            "j.finishedAt = :now, j.lockedBy = null, j.leaseUntil = null " +
+            "WHERE j.id = :id AND j.lockedBy = :node " +
+            "AND " + IN_PROGRESS)
+    int markDone(@Param("id") String id, @Param("node") String node, @Param("now") Instant now);
+}
@@ -0,0 +1,26 @@
+package com.example.hack1.report.Repository;
+
+import com.example.hack1.report.domain.ReportSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface ReportSnapshotRepository extends JpaRepository<ReportSnapshot, String> {
+
+    Optional<ReportSnapshot> findByFromDateAndToDateAndBranchKeyAndDataVersion(
+            LocalDate fromDate, LocalDate toDate, String branchKey, long dataVersion);
+
+    /**
+     * Snapshots cuya ventana contiene el día y que cubren la sucursal (la suya o "*").
+     * Nativo porque la entidad es @Immutable.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM report_snapshots WHERE from_date <= :day AND to_date >= :day " +
+            "AND (branch_key = '*' OR branch_key = :branch)",
+            nativeQuery = true)
+    int deleteCovering(@Param("day") LocalDate day, @Param("branch") String branch);
+}
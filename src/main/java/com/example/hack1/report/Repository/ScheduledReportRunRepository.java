@@ -0,0 +1,20 @@
+package com.example.hack1.report.Repository;
+
+import com.example.hack1.report.domain.ScheduledReportRun;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ScheduledReportRunRepository extends JpaRepository<ScheduledReportRun, String> {
+
+    /**
+     * Bloquea la fila hasta el commit: dos nodos que disparan a la vez se serializan aquí
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ScheduledReportRun r WHERE r.id = :id")
+    Optional<ScheduledReportRun> findForUpdate(@Param("id") String id);
+}
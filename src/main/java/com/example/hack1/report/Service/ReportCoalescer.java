@@ -0,0 +1,75 @@
+package com.example.hack1.report.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight de reportes: si llegan a la vez varios reportes con el mismo
+ * (from, to, branch), solo el primero agrega y llama al LLM; el resto espera ese
+ * mismo resultado. No es un caché: la entrada se borra apenas termina el cálculo.
+ * El alcance es el nodo (cada nodo calcula a lo sumo una vez por clave en vuelo).
+ * Métricas: reports.coalesce.leaders, reports.coalesce.hits, reports.coalesce.in.flight
+ */
+@Slf4j
+@Component
+public class ReportCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter hits;
+
+    public ReportCoalescer(MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("reports.coalesce.leaders").register(meterRegistry);
+        this.hits = Counter.builder("reports.coalesce.hits").register(meterRegistry);
+        Gauge.builder("reports.coalesce.in.flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Clave normalizada del reporte. La sucursal se compara tal cual porque el filtro
+     * de la consulta es exacto; vacía o null significa "todas".
+     */
+    public static String keyOf(LocalDate from, LocalDate to, String branch) {
+        return from + "|" + to + "|" + (branch == null || branch.isBlank() ? "*" : branch);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String key, Supplier<T> compute) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            hits.increment();
+            log.info("🤝 Reporte {} se une a un cálculo en curso", key);
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        leaders.increment();
+        try {
+            T result = compute.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+}
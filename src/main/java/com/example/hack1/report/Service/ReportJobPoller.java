@@ -0,0 +1,171 @@
+package com.example.hack1.report.Service;
+
+import com.example.hack1.Config.AsyncConfig;
+import com.example.hack1.Config.ReportTaskExecutor;
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.Email.WeeklySummaryProcessor;
+import com.example.hack1.report.domain.ReportJob;
+import com.example.hack1.report.domain.ReportLane;
+import com.example.hack1.sales.domain.SalesAggregates;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Corre en cada nodo: reclama trabajos de report_jobs en lotes, los ejecuta en el
+ * ejecutor de reportes y mantiene vivos sus leases. Más nodos = más reportes en paralelo.
+ * Los cupos libres se reparten entre carriles (premium / estándar) según ReportLanes.
+ */
+@Slf4j
+@Component
+public class ReportJobPoller {
+
+    private final ReportJobService reportJobService;
+    private final WeeklySummaryProcessor weeklySummaryProcessor;
+    private final ReportTaskExecutor reportExecutor;
+    private final ReportLanes reportLanes;
+    private final int maxConcurrent;
+    private final int batchSize;
+    private final String nodeId;
+
+    // Trabajos en curso en este nodo y su carril
+    private final Map<String, ReportLane> running = new ConcurrentHashMap<>();
+
+    public ReportJobPoller(ReportJobService reportJobService,
+                           WeeklySummaryProcessor weeklySummaryProcessor,
+                           @Qualifier(AsyncConfig.REPORT_EXECUTOR) ReportTaskExecutor reportExecutor,
+                           ReportLanes reportLanes,
+                           @Value("${reports.jobs.max-concurrent:50}") int maxConcurrent,
+                           @Value("${reports.jobs.batch-size:10}") int batchSize,
+                           @Value("${reports.jobs.node-id:}") String nodeId) {
+        this.reportJobService = reportJobService;
+        this.weeklySummaryProcessor = weeklySummaryProcessor;
+        this.reportExecutor = reportExecutor;
+        this.reportLanes = reportLanes;
+        this.maxConcurrent = maxConcurrent;
+        this.batchSize = batchSize;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        log.info("🖥️ Nodo de reportes: {}", this.nodeId);
+    }
+
+    @Scheduled(fixedDelayString = "${reports.jobs.poll-interval-ms:1000}")
+    public void poll() {
+        int free = maxConcurrent - running.size();
+        if (free <= 0) {
+            return;
+        }
+
+        int slots = Math.min(free, batchSize);
+        Map<ReportLane, Integer> busy = runningByLane();
+        Map<ReportLane, Integer> planned = reportLanes.plan(slots, busy);
+        Map<ReportLane, Integer> claimed = new EnumMap<>(ReportLane.class);
+        int unused = 0;
+        for (Map.Entry<ReportLane, Integer> entry : planned.entrySet()) {
+            int got = claimAndRun(entry.getKey(), entry.getValue());
+            claimed.put(entry.getKey(), got);
+            if (got < entry.getValue()) {
+                reportLanes.drained(entry.getKey());
+                unused += entry.getValue() - got;
+            }
+        }
+
+        // Lo que un carril vacío no usó lo toma el otro, dentro de su propio tope
+        for (ReportLane lane : ReportLane.values()) {
+            if (unused <= 0) {
+                break;
+            }
+            if (claimed.containsKey(lane) && claimed.get(lane) < planned.get(lane)) {
+                continue;
+            }
+            int extra = Math.min(unused, reportLanes.free(lane, busy, claimed));
+            if (extra > 0) {
+                unused -= claimAndRun(lane, extra);
+            }
+        }
+    }
+
+    /**
+     * Devuelve cuántas filas tomó del carril (arrancadas o enviadas a dead letter)
+     */
+    private int claimAndRun(ReportLane lane, int limit) {
+        ReportJobService.ClaimedJobs jobs = reportJobService.claim(nodeId, lane, limit);
+        // El reclamo ya hizo commit: los que agotaron su etapa por lease vencido reciben el aviso
+        for (ReportJob job : jobs.deadLettered()) {
+            weeklySummaryProcessor.sendErrorEmail(job.getEmailTo(), job.getId(), job.getLastError());
+        }
+        for (ReportJob job : jobs.claimed()) {
+            running.put(job.getId(), lane);
+            try {
+                reportExecutor.execute(() -> run(job));
+            } catch (TaskRejectedException e) {
+                // Contrapresión del nodo, no un fallo del reporte: otro poll (o nodo) lo retoma
+                running.remove(job.getId());
+                reportJobService.release(job.getId(), nodeId);
+            }
+        }
+        return jobs.size();
+    }
+
+    private Map<ReportLane, Integer> runningByLane() {
+        Map<ReportLane, Integer> counts = new EnumMap<>(ReportLane.class);
+        running.values().forEach(lane -> counts.merge(lane, 1, Integer::sum));
+        return counts;
+    }
+
+    @Scheduled(fixedDelayString = "${reports.jobs.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        if (!running.isEmpty()) {
+            reportJobService.heartbeat(nodeId, List.copyOf(running.keySet()));
+        }
+    }
+
+    private void run(ReportJob job) {
+        ReportRequestedEvent event = job.toEvent();
+        try {
+            weeklySummaryProcessor.process(event, job.recordedResult(), new ReportProgress() {
+                @Override
+                public void aggregated(SalesAggregates aggregates) {
+                    reportJobService.recordAggregates(job.getId(), nodeId, aggregates);
+                }
+
+                @Override
+                public void summarized(String summary) {
+                    reportJobService.recordSummary(job.getId(), nodeId, summary);
+                }
+            });
+            reportJobService.complete(job.getId(), nodeId);
+        } catch (Exception e) {
+            log.error("❌ Error al procesar reporte {}: {}", job.getId(), e.getMessage());
+            if (reportJobService.fail(job, nodeId, e.getMessage())) {
+                weeklySummaryProcessor.sendErrorEmail(event.getEmailTo(), event.getRequestId(), e.getMessage());
+            }
+        } finally {
+            running.remove(job.getId());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
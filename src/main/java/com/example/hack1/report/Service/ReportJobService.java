@@ -0,0 +1,367 @@
+package com.example.hack1.report.Service;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.DTO.Response.DeadLetterResponseDTO;
+import com.example.hack1.DTO.Response.ReportStatusResponseDTO;
+import com.example.hack1.Exception.ResourceNotFoundException;
+import com.example.hack1.Exception.UnauthorizedException;
+import com.example.hack1.Security.AuthenticatedUser;
+import com.example.hack1.report.Repository.ReportDeadLetterRepository;
+import com.example.hack1.report.Repository.ReportJobRepository;
+import com.example.hack1.report.domain.ReportDeadLetter;
+import com.example.hack1.report.domain.ReportJob;
+import com.example.hack1.report.domain.ReportJobStatus;
+import com.example.hack1.report.domain.ReportLane;
+import com.example.hack1.sales.domain.SalesAggregates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cola durable de reportes sobre la tabla report_jobs.
+ * La entrega es al menos una vez: si un nodo muere después de enviar el email
+ * pero antes de marcar DONE, otro nodo reenviará el reporte.
+ * Los fallos se reintentan por etapa (ReportRetryPolicies); al agotarse pasan a report_dead_letters.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportJobService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * Resultado de un reclamo: los trabajos que ahora son de este nodo y los que, al
+     * reclamarlos con el lease vencido, agotaron su etapa y pasaron a dead letter.
+     * Quien reclama avisa a sus solicitantes cuando la transacción ya hizo commit.
+     */
+    public record ClaimedJobs(List<ReportJob> claimed, List<ReportJob> deadLettered) {
+
+        public int size() {
+            return claimed.size() + deadLettered.size();
+        }
+    }
+
+    private final ReportJobRepository reportJobRepository;
+    private final ReportDeadLetterRepository deadLetterRepository;
+    private final ReportRetryPolicies retryPolicies;
+
+    @Value("${reports.jobs.lease-seconds:120}")
+    private long leaseSeconds;
+
+    /**
+     * Encola el reporte dentro de la transacción del request: si esta hace rollback,
+     * el trabajo no existe; si hace commit, ningún reinicio lo pierde.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ReportJob enqueue(ReportRequestedEvent event) {
+        ReportJob job = reportJobRepository.save(ReportJob.queued(event, Instant.now()));
+        log.info("📥 Reporte encolado: {}", job.getId());
+        return job;
+    }
+
+    /**
+     * Encola un reporte con agregados y resumen ya calculados; el worker no vuelve a escanear
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ReportJob enqueuePrecomputed(ReportRequestedEvent event, SalesAggregates aggregates) {
+        return reportJobRepository.save(ReportJob.precomputed(event, aggregates, Instant.now()));
+    }
+
+    /**
+     * Reclama hasta limit trabajos para este nodo. Las filas quedan bloqueadas
+     * (SKIP LOCKED) solo hasta el commit; desde ahí las protege el lease.
+     */
+    @Transactional
+    public ClaimedJobs claim(String node, int limit) {
+        Instant now = Instant.now();
+        return claimAll(reportJobRepository.findClaimable(now, PageRequest.of(0, limit)), node, now);
+    }
+
+    /**
+     * Igual que claim pero solo del carril indicado; ReportJobPoller decide cuántos pide a cada uno
+     */
+    @Transactional
+    public ClaimedJobs claim(String node, ReportLane lane, int limit) {
+        Instant now = Instant.now();
+        return claimAll(reportJobRepository.findClaimableInLane(lane.isPremium(), now, PageRequest.of(0, limit)),
+                node, now);
+    }
+
+    private ClaimedJobs claimAll(List<ReportJob> claimable, String node, Instant now) {
+        List<ReportJob> claimed = new ArrayList<>();
+        List<ReportJob> deadLettered = new ArrayList<>();
+        for (ReportJob job : claimable) {
+            if (job.getStatus() != ReportJobStatus.QUEUED) {
+                log.warn("⏰ Lease vencido del reporte {} (nodo {}), se reclama", job.getId(), job.getLockedBy());
+                // El lease vencido cuenta como un fallo de la etapa en curso
+                if (deadLetterIfExhausted(job, "Lease vencido del nodo " + job.getLockedBy(), now)) {
+                    deadLettered.add(job);
+                    continue;
+                }
+            }
+
+            job.setStatus(ReportJobStatus.AGGREGATING);
+            job.setLockedBy(node);
+            job.setLeaseUntil(now.plusSeconds(leaseSeconds));
+            job.setAttempts(job.getAttempts() + 1);
+            job.setStartedAt(now);
+            job.setSummarizingAt(null);
+            job.setEmailingAt(null);
+            claimed.add(job);
+        }
+        return new ClaimedJobs(claimed, deadLettered);
+    }
+
+    /**
+     * Devuelve a la cola un trabajo que este nodo reclamó pero no pudo arrancar (ejecutor
+     * lleno). No es un fallo del reporte: no consume intentos de la etapa ni va a dead letter.
+     */
+    @Transactional
+    public void release(String jobId, String node) {
+        findOwned(jobId, node).ifPresent(job -> {
+            job.setStatus(ReportJobStatus.QUEUED);
+            job.setAvailableAt(Instant.now());
+            job.setAttempts(Math.max(0, job.getAttempts() - 1));
+            job.setLockedBy(null);
+            job.setLeaseUntil(null);
+            log.info("↩️ Reporte {} devuelto a la cola: el nodo {} no tiene capacidad", jobId, node);
+        });
+    }
+
+    /**
+     * Renueva el lease de los trabajos que este nodo sigue procesando
+     */
+    @Transactional
+    public int heartbeat(String node, Collection<String> jobIds) {
+        if (jobIds.isEmpty()) {
+            return 0;
+        }
+        return reportJobRepository.extendLeases(jobIds, node, Instant.now().plusSeconds(leaseSeconds));
+    }
+
+    /**
+     * Guarda los agregados y pasa a SUMMARIZING, o directo a EMAILING si no hubo
+     * ventas (el resumen ya viene armado y no se llama al LLM)
+     */
+    @Transactional
+    public void recordAggregates(String jobId, String node, SalesAggregates aggregates) {
+        findOwned(jobId, node).ifPresent(job -> {
+            Instant now = Instant.now();
+            job.recordAggregates(aggregates);
+            job.setSummarizingAt(now);
+            job.setStatus(ReportJobStatus.SUMMARIZING);
+            if (aggregates.getSummary() != null) {
+                job.setEmailingAt(now);
+                job.setStatus(ReportJobStatus.EMAILING);
+            }
+        });
+    }
+
+    @Transactional
+    public void recordSummary(String jobId, String node, String summary) {
+        findOwned(jobId, node).ifPresent(job -> {
+            job.setSummary(summary);
+            job.setEmailingAt(Instant.now());
+            job.setStatus(ReportJobStatus.EMAILING);
+        });
+    }
+
+    private Optional<ReportJob> findOwned(String jobId, String node) {
+        return reportJobRepository.findById(jobId)
+                .filter(job -> node.equals(job.getLockedBy()) && !job.getStatus().isTerminal());
+    }
+
+    /**
+     * GET /api/sales/summary/{requestId} - Estado, tiempos por etapa y resultado.
+     * Es una búsqueda por clave primaria: barata aunque el cliente consulte seguido.
+     * CENTRAL ve cualquier reporte; BRANCH solo los que solicitó.
+     */
+    @Transactional(readOnly = true)
+    public ReportStatusResponseDTO getStatus(String requestId) {
+        AuthenticatedUser currentUser = AuthenticatedUser.current();
+
+        ReportJob job = reportJobRepository.findById(requestId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reporte no encontrado"));
+
+        if (!currentUser.isCentral() && !currentUser.getUsername().equals(job.getRequestedBy())) {
+            throw new UnauthorizedException("Acceso denegado a reporte de otro usuario");
+        }
+
+        return new ReportStatusResponseDTO(
+                job.getId(),
+                job.getStatus().name(),
+                job.getAttempts(),
+                job.getCreatedAt(),
+                job.getFinishedAt(),
+                stageTimings(job),
+                job.toAggregates(),
+                job.getStatus() == ReportJobStatus.FAILED ? job.getLastError() : null
+        );
+    }
+
+    private Map<String, Long> stageTimings(ReportJob job) {
+        Map<String, Long> timings = new LinkedHashMap<>();
+        putDuration(timings, "queued", job.getCreatedAt(), job.getStartedAt());
+        Instant aggregatedAt = job.getSummarizingAt() != null ? job.getSummarizingAt() : job.getEmailingAt();
+        putDuration(timings, "aggregating", job.getStartedAt(), aggregatedAt);
+        if (job.getSummarizingAt() != null && !job.getSummarizingAt().equals(job.getEmailingAt())) {
+            putDuration(timings, "summarizing", job.getSummarizingAt(), job.getEmailingAt());
+        }
+        if (job.getStatus() == ReportJobStatus.DONE) {
+            putDuration(timings, "emailing", job.getEmailingAt(), job.getFinishedAt());
+        }
+        return timings;
+    }
+
+    private static void putDuration(Map<String, Long> timings, String stage, Instant start, Instant end) {
+        if (start != null && end != null) {
+            timings.put(stage, Duration.between(start, end).toMillis());
+        }
+    }
+
+    @Transactional
+    public boolean complete(String jobId, String node) {
+        boolean updated = reportJobRepository.markDone(jobId, node, Instant.now()) == 1;
+        if (!updated) {
+            log.warn("⚠️ El reporte {} ya no pertenece al nodo {} (lease perdido)", jobId, node);
+        }
+        return updated;
+    }
+
+    /**
+     * Devuelve true si el fallo es definitivo (la etapa agotó sus intentos y el trabajo pasó
+     * a dead letter); si no, vuelve a la cola con la espera de la política de esa etapa.
+     * El worker no espera: el trabajo queda QUEUED con availableAt en el futuro.
+     */
+    @Transactional
+    public boolean fail(ReportJob job, String node, String error) {
+        Optional<ReportJob> owned = findOwned(job.getId(), node);
+        if (owned.isEmpty()) {
+            log.warn("⚠️ El reporte {} ya no pertenece al nodo {} (lease perdido)", job.getId(), node);
+            return false;
+        }
+
+        ReportJob current = owned.get();
+        Instant now = Instant.now();
+        if (deadLetterIfExhausted(current, truncate(error), now)) {
+            return true;
+        }
+
+        ReportRetryPolicies.Policy policy = retryPolicies.forStage(current.getFailedStage());
+        Instant retryAt = now.plus(policy.backoff(current.getStageAttempts()));
+        current.setStatus(ReportJobStatus.QUEUED);
+        current.setAvailableAt(retryAt);
+        current.setLockedBy(null);
+        current.setLeaseUntil(null);
+        log.warn("🔁 Reporte {} reintentará {} en {} (intento {}/{}): {}", job.getId(), current.getFailedStage(),
+                retryAt, current.getStageAttempts(), policy.maxAttempts(), error);
+        return false;
+    }
+
+    /**
+     * Cuenta el fallo contra la etapa en curso del trabajo. Si la etapa agotó sus intentos,
+     * el trabajo queda FAILED y se guarda en report_dead_letters.
+     */
+    private boolean deadLetterIfExhausted(ReportJob job, String error, Instant now) {
+        ReportJobStatus stage = job.getStatus();
+        int stageAttempts = stage == job.getFailedStage() ? job.getStageAttempts() + 1 : 1;
+        job.setFailedStage(stage);
+        job.setStageAttempts(stageAttempts);
+        job.setLastError(error);
+
+        if (stageAttempts < retryPolicies.forStage(stage).maxAttempts()) {
+            return false;
+        }
+
+        job.setStatus(ReportJobStatus.FAILED);
+        job.setFinishedAt(now);
+        job.setLockedBy(null);
+        job.setLeaseUntil(null);
+        deadLetterRepository.save(ReportDeadLetter.builder()
+                .id(job.getId())
+                .stage(stage)
+                .attempts(job.getAttempts())
+                .lastError(error)
+                .requestedBy(job.getRequestedBy())
+                .premium(job.isPremium())
+                .deadAt(now)
+                .build());
+        log.error("❌ Reporte {} enviado a dead letter: {} fallos en {} ({} intentos en total): {}",
+                job.getId(), stageAttempts, stage, job.getAttempts(), error);
+        return true;
+    }
+
+    // ==========================================
+    // DEAD LETTER (administración)
+    // ==========================================
+
+    @Transactional(readOnly = true)
+    public Page<DeadLetterResponseDTO> listDeadLetters(ReportJobStatus stage, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "deadAt"));
+        Page<ReportDeadLetter> letters = stage != null
+                ? deadLetterRepository.findByStage(stage, pageable)
+                : deadLetterRepository.findAll(pageable);
+        return letters.map(letter -> new DeadLetterResponseDTO(letter.getId(), letter.getStage().name(),
+                letter.getAttempts(), letter.getLastError(), letter.getRequestedBy(), letter.isPremium(),
+                letter.getDeadAt()));
+    }
+
+    /**
+     * Vuelve a encolar en bloque: los ids indicados o, si no hay, los más antiguos hasta
+     * limit (opcionalmente solo de una etapa). Cada trabajo arranca con intentos en cero
+     * y conserva el resultado ya calculado, así que retoma desde la etapa que falló.
+     */
+    @Transactional
+    public int redrive(Collection<String> ids, ReportJobStatus stage, int limit) {
+        PageRequest oldest = PageRequest.of(0, limit, Sort.by("deadAt"));
+        List<ReportDeadLetter> letters;
+        if (ids != null && !ids.isEmpty()) {
+            letters = deadLetterRepository.findAllById(ids);
+        } else if (stage != null) {
+            letters = deadLetterRepository.findByStage(stage, oldest).getContent();
+        } else {
+            letters = deadLetterRepository.findAll(oldest).getContent();
+        }
+
+        Instant now = Instant.now();
+        List<String> letterIds = letters.stream().map(ReportDeadLetter::getId).toList();
+        for (ReportJob job : reportJobRepository.findAllById(letterIds)) {
+            if (job.getStatus() != ReportJobStatus.FAILED) {
+                continue;
+            }
+            job.setStatus(ReportJobStatus.QUEUED);
+            job.setAvailableAt(now);
+            job.setAttempts(0);
+            job.setFailedStage(null);
+            job.setStageAttempts(0);
+            job.setFinishedAt(null);
+        }
+        deadLetterRepository.deleteAllInBatch(letters);
+
+        log.info("🔁 {} reportes reencolados desde dead letter", letters.size());
+        return letters.size();
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.hack1.report.Service;
+
+import com.example.hack1.report.Repository.ReportJobRepository;
+import com.example.hack1.report.domain.ReportLane;
+import com.example.hack1.report.domain.ReportServiceTime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carriles de la cola de reportes: premium y estándar. Cada carril tiene su propio tope de
+ * reportes en curso por nodo, así un render premium lento no ocupa los cupos de los de texto
+ * ni una ráfaga de texto retrasa a los premium. Cuando los dos tienen trabajo, los cupos
+ * libres se reparten por peso (round robin ponderado suave); si uno está vacío, el otro
+ * usa lo que sobra.
+ */
+@Component
+public class ReportLanes {
+
+    // Reportes terminados que se promedian para el tiempo de servicio de cada carril
+    private static final int SERVICE_TIME_SAMPLE = 20;
+
+    private final ReportJobRepository reportJobRepository;
+    private final Map<ReportLane, Integer> weights = new EnumMap<>(ReportLane.class);
+    private final Map<ReportLane, Integer> maxConcurrent = new EnumMap<>(ReportLane.class);
+    private final Map<ReportLane, Duration> defaultServiceTime = new EnumMap<>(ReportLane.class);
+    // reports.jobs.max-concurrent: tope total del nodo, por encima del de cada carril
+    private final int nodeMaxConcurrent;
+
+    // Estado del round robin ponderado: crédito acumulado de cada carril
+    private final Map<ReportLane, Integer> credit = new EnumMap<>(ReportLane.class);
+
+    public ReportLanes(ReportJobRepository reportJobRepository,
+                       @Value("${reports.lanes.premium.weight:3}") int premiumWeight,
+                       @Value("${reports.lanes.premium.max-concurrent:20}") int premiumMaxConcurrent,
+                       @Value("${reports.lanes.premium.default-service-seconds:75}") long premiumServiceSeconds,
+                       @Value("${reports.lanes.standard.weight:1}") int standardWeight,
+                       @Value("${reports.lanes.standard.max-concurrent:40}") int standardMaxConcurrent,
+                       @Value("${reports.lanes.standard.default-service-seconds:45}") long standardServiceSeconds,
+                       @Value("${reports.jobs.max-concurrent:50}") int nodeMaxConcurrent) {
+        this.reportJobRepository = reportJobRepository;
+        this.nodeMaxConcurrent = Math.max(1, nodeMaxConcurrent);
+        weights.put(ReportLane.PREMIUM, Math.max(1, premiumWeight));
+        weights.put(ReportLane.STANDARD, Math.max(1, standardWeight));
+        maxConcurrent.put(ReportLane.PREMIUM, Math.max(1, premiumMaxConcurrent));
+        maxConcurrent.put(ReportLane.STANDARD, Math.max(1, standardMaxConcurrent));
+        defaultServiceTime.put(ReportLane.PREMIUM, Duration.ofSeconds(premiumServiceSeconds));
+        defaultServiceTime.put(ReportLane.STANDARD, Duration.ofSeconds(standardServiceSeconds));
+        for (ReportLane lane : ReportLane.values()) {
+            credit.put(lane, 0);
+        }
+    }
+
+    public int maxConcurrent(ReportLane lane) {
+        return maxConcurrent.get(lane);
+    }
+
+    // ==========================================
+    // REPARTO DE CUPOS ENTRE CARRILES
+    // ==========================================
+
+    /**
+     * Cuántos trabajos pedir a cada carril con slots cupos libres en el nodo. Cupo por cupo,
+     * cada carril con lugar suma su peso y gana el de mayor crédito, que paga el peso total:
+     * con pesos 3:1 y ambos con cola, de cada 4 cupos 3 van a premium, intercalados.
+     */
+    public synchronized Map<ReportLane, Integer> plan(int slots, Map<ReportLane, Integer> running) {
+        Map<ReportLane, Integer> planned = new EnumMap<>(ReportLane.class);
+        for (int i = 0; i < slots; i++) {
+            ReportLane chosen = null;
+            int eligibleWeight = 0;
+            for (ReportLane lane : ReportLane.values()) {
+                if (free(lane, running, planned) <= 0) {
+                    continue;
+                }
+                eligibleWeight += weights.get(lane);
+                credit.merge(lane, weights.get(lane), Integer::sum);
+                if (chosen == null || credit.get(lane) > credit.get(chosen)) {
+                    chosen = lane;
+                }
+            }
+            if (chosen == null) {
+                break;
+            }
+            credit.merge(chosen, -eligibleWeight, Integer::sum);
+            planned.merge(chosen, 1, Integer::sum);
+        }
+        return planned;
+    }
+
+    /**
+     * El carril devolvió menos trabajos de los pedidos: no acumula crédito mientras está vacío
+     */
+    public synchronized void drained(ReportLane lane) {
+        credit.put(lane, 0);
+    }
+
+    /**
+     * Cupos que le quedan al carril contando los reportes en curso y los ya planeados
+     */
+    public int free(ReportLane lane, Map<ReportLane, Integer> running, Map<ReportLane, Integer> planned) {
+        return maxConcurrent.get(lane) - running.getOrDefault(lane, 0) - planned.getOrDefault(lane, 0);
+    }
+
+    // ==========================================
+    // TIEMPO ESTIMADO PARA LA RESPUESTA DEL REQUEST
+    // ==========================================
+
+    /**
+     * Espera estimada para un reporte recién encolado en el carril: los pendientes listos del
+     * carril (incluido el nuevo, si se llama en la transacción que lo encoló; sin los que esperan
+     * un reintento) se atienden en tandas del tamaño de la concurrencia efectiva del clúster,
+     * cada una tan larga como el promedio de los últimos reportes terminados.
+     * Sin historial todavía, se usa default-service-seconds del carril.
+     */
+    @Transactional(readOnly = true)
+    public Duration estimateWait(ReportLane lane) {
+        Instant now = Instant.now();
+        long pending = Math.max(1, reportJobRepository.countPending(lane.isPremium(), now));
+        long concurrency = effectiveConcurrency(lane, now);
+        long rounds = (pending + concurrency - 1) / concurrency;
+        return recentServiceTime(lane).multipliedBy(rounds);
+    }
+
+    /**
+     * Cada nodo vivo atiende el carril hasta su tope, sin pasar de reports.jobs.max-concurrent.
+     * Los nodos vivos se cuentan por sus leases vigentes; como mínimo, este mismo nodo.
+     */
+    private long effectiveConcurrency(ReportLane lane, Instant now) {
+        long liveNodes = Math.max(1, reportJobRepository.countLiveNodes(now));
+        return liveNodes * Math.min(maxConcurrent.get(lane), nodeMaxConcurrent);
+    }
+
+    public Duration recentServiceTime(ReportLane lane) {
+        List<ReportServiceTime> recent = reportJobRepository.findRecentServiceTimes(
+                lane.isPremium(), PageRequest.of(0, SERVICE_TIME_SAMPLE));
+        if (recent.isEmpty()) {
+            return defaultServiceTime.get(lane);
+        }
+        long totalMillis = recent.stream().mapToLong(time -> time.duration().toMillis()).sum();
+        return Duration.ofMillis(totalMillis / recent.size());
+    }
+
+    /**
+     * Texto para estimatedTime: "~40 segundos", "~3 minutos"
+     */
+    public static String describe(Duration wait) {
+        long seconds = Math.max(1, (wait.toMillis() + 999) / 1000);
+        if (seconds < 90) {
+            return "~" + seconds + " segundos";
+        }
+        return "~" + ((seconds + 59) / 60) + " minutos";
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.hack1.report.Service;
+
+import com.example.hack1.sales.domain.SalesAggregates;
+
+/**
+ * Avisos de avance que WeeklySummaryProcessor emite al terminar cada etapa
+ */
+public interface ReportProgress {
+
+    ReportProgress NONE = new ReportProgress() {
+        @Override
+        public void aggregated(SalesAggregates aggregates) {
+        }
+
+        @Override
+        public void summarized(String summary) {
+        }
+    };
+
+    void aggregated(SalesAggregates aggregates);
+
+    void summarized(String summary);
+}
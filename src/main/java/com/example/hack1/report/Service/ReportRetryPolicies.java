@@ -0,0 +1,59 @@
+package com.example.hack1.report.Service;
+
+import com.example.hack1.report.domain.ReportJobStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reintentos por etapa del reporte. La espera crece exponencialmente desde initialBackoff
+ * hasta maxBackoff y lleva jitter (entre la mitad y el total), para que los trabajos que
+ * fallaron juntos por el mismo corte no vuelvan a golpear el SMTP o el modelo a la vez.
+ * El reintento nunca duerme un hilo: el trabajo vuelve a report_jobs con availableAt futuro.
+ */
+@Component
+public class ReportRetryPolicies {
+
+    public record Policy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+
+        /**
+         * Espera antes del intento siguiente al fallo número failedAttempts (1, 2, ...)
+         */
+        public Duration backoff(int failedAttempts) {
+            long cap = maxBackoff.toMillis();
+            long exponential = initialBackoff.toMillis() << Math.min(failedAttempts - 1, 20);
+            long delay = Math.min(cap, exponential > 0 ? exponential : cap);
+            long half = delay / 2;
+            return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(delay - half + 1));
+        }
+    }
+
+    private final Policy aggregating;
+    private final Policy summarizing;
+    private final Policy emailing;
+
+    public ReportRetryPolicies(@Value("${reports.retry.aggregating.max-attempts:3}") int aggregatingAttempts,
+                               @Value("${reports.retry.aggregating.initial-backoff-seconds:10}") long aggregatingBackoff,
+                               @Value("${reports.retry.summarizing.max-attempts:5}") int summarizingAttempts,
+                               @Value("${reports.retry.summarizing.initial-backoff-seconds:30}") long summarizingBackoff,
+                               @Value("${reports.retry.emailing.max-attempts:6}") int emailingAttempts,
+                               @Value("${reports.retry.emailing.initial-backoff-seconds:30}") long emailingBackoff,
+                               @Value("${reports.retry.max-backoff-seconds:1800}") long maxBackoff) {
+        this.aggregating = new Policy(aggregatingAttempts, Duration.ofSeconds(aggregatingBackoff), Duration.ofSeconds(maxBackoff));
+        this.summarizing = new Policy(summarizingAttempts, Duration.ofSeconds(summarizingBackoff), Duration.ofSeconds(maxBackoff));
+        this.emailing = new Policy(emailingAttempts, Duration.ofSeconds(emailingBackoff), Duration.ofSeconds(maxBackoff));
+    }
+
+    /**
+     * Política de la etapa en la que falló el trabajo
+     */
+    public Policy forStage(ReportJobStatus stage) {
+        return switch (stage) {
+            case SUMMARIZING -> summarizing;
+            case EMAILING -> emailing;
+            default -> aggregating;
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.hack1.report.Service;
+
+import com.example.hack1.Models.GitHubModelsService;
+import com.example.hack1.Models.SummaryInput;
+import com.example.hack1.report.Repository.ReportSnapshotRepository;
+import com.example.hack1.report.domain.ReportSnapshot;
+import com.example.hack1.sales.Repository.SalesDayVersionRepository;
+import com.example.hack1.sales.Service.SalesRollupService;
+import com.example.hack1.sales.domain.Sales;
+import com.example.hack1.sales.domain.SalesAggregates;
+import com.example.hack1.sales.domain.SalesDayVersionId;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Snapshots inmutables de reportes de períodos cerrados, con clave
+ * (from, to, sucursal, versión de datos). La versión se lee antes de calcular: si una
+ * venta de la ventana cambia mientras tanto, el snapshot queda guardado con una versión
+ * vieja y nunca se sirve. touch/touchAll se llaman en la transacción que modifica la venta.
+ * Las ventas del día (la inmensa mayoría) no tocan sales_day_versions: un período recién se
+ * considera cerrado cuando terminó antes de ayer, y ese día de gracia cubre los commits tardíos
+ * de ventas que se registraron antes de la medianoche.
+ * Métricas: reports.snapshot.hits, reports.snapshot.misses
+ */
+@Slf4j
+@Service
+public class ReportSnapshotService {
+
+    private static final String ALL_BRANCHES = "*";
+
+    public record Key(LocalDate from, LocalDate to, String branchKey, long dataVersion) {
+    }
+
+    private final ReportSnapshotRepository snapshotRepository;
+    private final SalesDayVersionRepository dayVersionRepository;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ReportSnapshotService(ReportSnapshotRepository snapshotRepository,
+                                 SalesDayVersionRepository dayVersionRepository,
+                                 MeterRegistry meterRegistry) {
+        this.snapshotRepository = snapshotRepository;
+        this.dayVersionRepository = dayVersionRepository;
+        this.hits = Counter.builder("reports.snapshot.hits").register(meterRegistry);
+        this.misses = Counter.builder("reports.snapshot.misses").register(meterRegistry);
+    }
+
+    /**
+     * Clave del snapshot si el período ya cerró (termina antes de ayer, UTC);
+     * null si todavía pueden llegar ventas y no vale la pena guardarlo
+     */
+    @Transactional(readOnly = true)
+    public Key keyFor(LocalDate from, LocalDate to, String branch) {
+        if (from == null || to == null || !to.isBefore(today().minusDays(1))) {
+            return null;
+        }
+        boolean filtered = branch != null && !branch.isBlank();
+        long version = filtered
+                ? dayVersionRepository.sumVersionsByBranch(branch, from, to)
+                : dayVersionRepository.sumVersions(from, to);
+        return new Key(from, to, filtered ? branch : ALL_BRANCHES, version);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<SalesAggregates> find(Key key, String branch) {
+        Optional<SalesAggregates> found = snapshotRepository
+                .findByFromDateAndToDateAndBranchKeyAndDataVersion(key.from(), key.to(), key.branchKey(), key.dataVersion())
+                .map(snapshot -> snapshot.toAggregates(branch));
+        (found.isPresent() ? hits : misses).increment();
+        return found;
+    }
+
+    /**
+     * Guarda el resultado terminado. Un resumen de respaldo (el modelo no respondió) no
+     * se congela; si otro nodo guardó la misma clave primero, se conserva ese.
+     */
+    public void save(Key key, SalesAggregates aggregates) {
+        String summary = aggregates.getSummary();
+        if (summary == null || GitHubModelsService.isFallbackSummary(new SummaryInput(aggregates.getTotalUnits(),
+                aggregates.getTotalRevenue(), aggregates.getTopSku(), aggregates.getTopBranch()), summary)) {
+            return;
+        }
+        try {
+            snapshotRepository.save(ReportSnapshot.builder()
+                    .fromDate(key.from())
+                    .toDate(key.to())
+                    .branchKey(key.branchKey())
+                    .dataVersion(key.dataVersion())
+                    .totalSales(aggregates.getTotalSales())
+                    .totalUnits(aggregates.getTotalUnits())
+                    .totalRevenue(aggregates.getTotalRevenue())
+                    .topSku(aggregates.getTopSku())
+                    .topBranch(aggregates.getTopBranch())
+                    .summary(summary)
+                    .unitsBySku(aggregates.getUnitsBySku())
+                    .unitsByBranch(aggregates.getUnitsByBranch())
+                    .build());
+            log.info("📸 Snapshot guardado: {} al {} ({}, versión {})",
+                    key.from(), key.to(), key.branchKey(), key.dataVersion());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("📸 Snapshot {} ya existía", key);
+        }
+    }
+
+    // ==========================================
+    // INVALIDACIÓN (dentro de la transacción de la venta)
+    // ==========================================
+
+    /**
+     * Marca el (día, sucursal) de la venta como modificado y borra los snapshots que lo cubren
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void touch(Instant soldAt, String branch) {
+        LocalDate day = SalesRollupService.dayOf(soldAt);
+        if (!day.isBefore(today())) {
+            // Ningún snapshot puede cubrir hoy: la venta no bloquea la fila de versión
+            return;
+        }
+        dayVersionRepository.bump(day, branch);
+        int deleted = snapshotRepository.deleteCovering(day, branch);
+        if (deleted > 0) {
+            log.info("📸 {} snapshots invalidados por cambios del {} en {}", deleted, day, branch);
+        }
+    }
+
+    /**
+     * Carga masiva: un touch por (día, sucursal) distinto, no por venta
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void touchAll(Collection<Sales> sales) {
+        LocalDate today = today();
+        Set<SalesDayVersionId> touched = new HashSet<>();
+        for (Sales sale : sales) {
+            LocalDate day = SalesRollupService.dayOf(sale.getSoldAt());
+            if (day.isBefore(today)) {
+                touched.add(new SalesDayVersionId(day, sale.getBranch()));
+            }
+        }
+        touched.forEach(id -> {
+            dayVersionRepository.bump(id.getSaleDay(), id.getBranch());
+            snapshotRepository.deleteCovering(id.getSaleDay(), id.getBranch());
+        });
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.hack1.report.Service;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.report.Repository.ScheduledReportRunRepository;
+import com.example.hack1.report.domain.ScheduledReportRun;
+import com.example.hack1.sales.domain.SalesAggregates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Liderazgo de un solo nodo para el reporte programado, coordinado con la base de datos:
+ * la fila de scheduled_report_runs se bloquea al reclamarla y el lease marca al dueño.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduledReportRunService {
+
+    private final ScheduledReportRunRepository runRepository;
+    private final ReportJobService reportJobService;
+
+    @Value("${reports.scheduled.lease-seconds:600}")
+    private long leaseSeconds;
+
+    public record ScheduledReport(ReportRequestedEvent event, SalesAggregates aggregates) {
+    }
+
+    /**
+     * Crea la fila del período si no existe. Si otro nodo la inserta a la vez, el que
+     * pierde recibe DataIntegrityViolationException y sigue con tryClaim.
+     */
+    @Transactional
+    public void register(String runId, LocalDate from, LocalDate to) {
+        if (!runRepository.existsById(runId)) {
+            runRepository.saveAndFlush(ScheduledReportRun.builder()
+                    .id(runId)
+                    .fromDate(from)
+                    .toDate(to)
+                    .build());
+        }
+    }
+
+    /**
+     * true si este nodo queda a cargo de la corrida: no terminó y nadie tiene un lease vigente
+     */
+    @Transactional
+    public boolean tryClaim(String runId, String node) {
+        ScheduledReportRun run = runRepository.findForUpdate(runId).orElse(null);
+        if (run == null || run.isFinished()) {
+            return false;
+        }
+
+        Instant now = Instant.now();
+        if (run.getLockedBy() != null) {
+            if (run.getLeaseUntil().isAfter(now)) {
+                return false;
+            }
+            log.warn("⏰ Lease vencido de la corrida {} (nodo {}), se retoma", runId, run.getLockedBy());
+        }
+
+        run.setLockedBy(node);
+        run.setLeaseUntil(now.plusSeconds(leaseSeconds));
+        run.setStartedAt(now);
+        return true;
+    }
+
+    /**
+     * Encola los reportes y cierra la corrida en la misma transacción: si el nodo perdió
+     * el lease no se encola nada, así cada período se envía una sola vez.
+     */
+    @Transactional
+    public boolean complete(String runId, String node, List<ScheduledReport> reports) {
+        ScheduledReportRun run = runRepository.findForUpdate(runId).orElse(null);
+        if (run == null || run.isFinished() || !node.equals(run.getLockedBy())) {
+            log.warn("⚠️ La corrida {} ya no pertenece al nodo {} (lease perdido)", runId, node);
+            return false;
+        }
+
+        reports.forEach(report -> reportJobService.enqueuePrecomputed(report.event(), report.aggregates()));
+
+        run.setFinishedAt(Instant.now());
+        run.setJobsEnqueued(reports.size());
+        run.setLockedBy(null);
+        run.setLeaseUntil(null);
+        return true;
+    }
+}
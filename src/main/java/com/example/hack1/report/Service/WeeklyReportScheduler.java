@@ -0,0 +1,122 @@
+package com.example.hack1.report.Service;
+
+import com.example.hack1.Config.ReportConcurrencyLimits;
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.Id.IdGenerators;
+import com.example.hack1.User.Repository.UserRepository;
+import com.example.hack1.User.domain.Rol;
+import com.example.hack1.User.domain.User;
+import com.example.hack1.report.Service.ScheduledReportRunService.ScheduledReport;
+import com.example.hack1.sales.Service.SalesService;
+import com.example.hack1.sales.domain.SalesAggregates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reporte semanal automático para todas las sucursales. Se dispara en todos los nodos,
+ * pero solo el que reclama la corrida del período en scheduled_report_runs la ejecuta:
+ * una pasada por las ventas de la semana agrupada por sucursal, resúmenes en lote y
+ * un trabajo por destinatario en report_jobs (CENTRAL recibe el total, BRANCH su sucursal).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WeeklyReportScheduler {
+
+    private final ScheduledReportRunService runService;
+    private final SalesService salesService;
+    private final UserRepository userRepository;
+    private final ReportJobPoller reportJobPoller;
+    private final ReportConcurrencyLimits limits;
+
+    @Value("${reports.scheduled.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Por defecto cada hora de los lunes: el primer disparo hace la corrida y los siguientes
+     * solo la retoman si el nodo que la tenía murió (lease vencido)
+     */
+    @Scheduled(cron = "${reports.scheduled.cron:0 0 * * * MON}", zone = "UTC")
+    public void runScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            run(LocalDate.now(ZoneOffset.UTC));
+        } catch (Exception e) {
+            log.error("❌ Error en el reporte semanal programado: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Corre el reporte de la semana (lunes a domingo) anterior a today.
+     * Devuelve true si este nodo lo ejecutó.
+     */
+    public boolean run(LocalDate today) {
+        LocalDate from = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(1);
+        LocalDate to = from.plusDays(6);
+        String runId = "weekly_" + from;
+        String node = reportJobPoller.getNodeId();
+
+        try {
+            runService.register(runId, from, to);
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo insertó la fila del período al mismo tiempo
+        }
+        if (!runService.tryClaim(runId, node)) {
+            log.debug("🗓️ Corrida {} terminada o en curso en otro nodo", runId);
+            return false;
+        }
+
+        log.info("🗓️ Reporte semanal programado {} ({} al {}) en nodo {}", runId, from, to, node);
+
+        List<SalesAggregates> reports = limits.getDbScan().call(() -> salesService.aggregateAllBranches(from, to));
+        limits.getLlm().run(() -> salesService.summarizeAll(reports));
+
+        SalesAggregates overall = reports.get(0);
+        Map<String, SalesAggregates> byBranch = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        reports.stream().skip(1).forEach(a -> byBranch.put(a.getBranch(), a));
+
+        List<ScheduledReport> scheduled = new ArrayList<>();
+        for (User user : userRepository.findByRole(Rol.CENTRAL)) {
+            scheduled.add(new ScheduledReport(event(user, from, to, null), overall));
+        }
+        for (User user : userRepository.findByRole(Rol.BRANCH)) {
+            SalesAggregates aggregates = byBranch.get(user.getBranch());
+            if (aggregates == null) {
+                aggregates = salesService.emptyAggregates(from, to, user.getBranch());
+            }
+            scheduled.add(new ScheduledReport(event(user, from, to, user.getBranch()), aggregates));
+        }
+
+        if (runService.complete(runId, node, scheduled)) {
+            log.info("✅ Corrida {}: {} sucursales, {} reportes encolados", runId, byBranch.size(), scheduled.size());
+            return true;
+        }
+        return false;
+    }
+
+    private static ReportRequestedEvent event(User user, LocalDate from, LocalDate to, String branch) {
+        return ReportRequestedEvent.builder()
+                .requestId(IdGenerators.current().nextId("req_weekly_"))
+                .from(from)
+                .to(to)
+                .branch(branch)
+                .emailTo(user.getEmail())
+                .requestedBy(user.getUsername())
+                .build();
+    }
+}
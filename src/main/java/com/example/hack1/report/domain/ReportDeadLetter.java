@@ -0,0 +1,47 @@
+package com.example.hack1.report.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Reporte que agotó los reintentos de una etapa. El trabajo queda FAILED en report_jobs
+ * y esta fila lo deja consultable hasta que un administrador lo vuelva a encolar.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "report_dead_letters", indexes = {
+        @Index(name = "idx_report_dead_letters_stage_dead_at", columnList = "stage, dead_at")
+})
+@Builder
+public class ReportDeadLetter {
+
+    // Mismo id que el trabajo en report_jobs
+    @Id
+    @Column(length = 50)
+    private String id;
+
+    // Etapa en la que se agotaron los intentos
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReportJobStatus stage;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "requested_by")
+    private String requestedBy;
+
+    @Column(nullable = false)
+    private boolean premium;
+
+    @Column(name = "dead_at", nullable = false)
+    private Instant deadAt;
+}
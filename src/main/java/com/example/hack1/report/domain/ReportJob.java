@@ -0,0 +1,223 @@
+package com.example.hack1.report.domain;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.sales.domain.SalesAggregates;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Solicitud de reporte semanal persistida (outbox transaccional).
+ * Se inserta en la misma transacción del request y cualquier nodo la reclama con
+ * SELECT ... FOR UPDATE SKIP LOCKED; mientras corre, el nodo renueva leaseUntil.
+ * Si el nodo muere, el lease vence y otro nodo la vuelve a tomar.
+ * Es {@link Persistable}: el id viene asignado, así save() inserta con persist
+ * (sin SELECT previo) y un id repetido falla en vez de sobrescribir otra fila.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "report_jobs", indexes = {
+        @Index(name = "idx_report_jobs_status_available_at", columnList = "status, available_at"),
+        @Index(name = "idx_report_jobs_status_lease_until", columnList = "status, lease_until"),
+        @Index(name = "idx_report_jobs_lane_status_available_at", columnList = "premium, status, available_at"),
+        @Index(name = "idx_report_jobs_lane_status_finished_at", columnList = "premium, status, finished_at")
+})
+@Builder
+public class ReportJob implements Persistable<String> {
+
+    // Es el requestId devuelto al cliente
+    @Id
+    @Column(length = 50)
+    private String id;
+
+    @Column(name = "from_date", nullable = false)
+    private LocalDate fromDate;
+
+    @Column(name = "to_date", nullable = false)
+    private LocalDate toDate;
+
+    private String branch;
+
+    @Column(name = "email_to", nullable = false)
+    private String emailTo;
+
+    @Column(name = "requested_by")
+    private String requestedBy;
+
+    @Column(nullable = false)
+    private boolean premium;
+
+    @Column(name = "include_charts", nullable = false)
+    private boolean includeCharts;
+
+    @Column(name = "attach_pdf", nullable = false)
+    private boolean attachPdf;
+
+    // Encolado por el reporte programado con agregados y resumen ya calculados
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean precomputed;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReportJobStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Reintentos de la etapa que viene fallando; vuelve a 1 si el trabajo falla en otra
+    @Enumerated(EnumType.STRING)
+    @Column(name = "failed_stage", length = 20)
+    private ReportJobStatus failedStage;
+
+    @ColumnDefault("0")
+    @Column(name = "stage_attempts", nullable = false)
+    private int stageAttempts;
+
+    // ==========================================
+    // PROGRESO: inicio de cada etapa del último intento
+    // ==========================================
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "summarizing_at")
+    private Instant summarizingAt;
+
+    @Column(name = "emailing_at")
+    private Instant emailingAt;
+
+    // ==========================================
+    // RESULTADO (disponible desde que termina la agregación)
+    // ==========================================
+
+    @Column(name = "total_sales")
+    private Integer totalSales;
+
+    @Column(name = "total_units")
+    private Integer totalUnits;
+
+    @Column(name = "total_revenue")
+    private Double totalRevenue;
+
+    @Column(name = "top_sku")
+    private String topSku;
+
+    @Column(name = "top_branch")
+    private String topBranch;
+
+    @Column(length = 4000)
+    private String summary;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    public static ReportJob queued(ReportRequestedEvent event, Instant now) {
+        return ReportJob.builder()
+                .id(event.getRequestId())
+                .fromDate(event.getFrom())
+                .toDate(event.getTo())
+                .branch(event.getBranch())
+                .emailTo(event.getEmailTo())
+                .requestedBy(event.getRequestedBy())
+                .premium(event.isPremium())
+                .includeCharts(event.isIncludeCharts())
+                .attachPdf(event.isAttachPdf())
+                .status(ReportJobStatus.QUEUED)
+                .attempts(0)
+                .availableAt(now)
+                .build();
+    }
+
+    /**
+     * Trabajo cuyo resultado ya se calculó (reporte programado): el worker solo envía el email
+     */
+    public static ReportJob precomputed(ReportRequestedEvent event, SalesAggregates aggregates, Instant now) {
+        ReportJob job = queued(event, now);
+        job.setPrecomputed(true);
+        job.recordAggregates(aggregates);
+        return job;
+    }
+
+    public void recordAggregates(SalesAggregates aggregates) {
+        totalSales = aggregates.getTotalSales();
+        totalUnits = aggregates.getTotalUnits();
+        totalRevenue = aggregates.getTotalRevenue();
+        topSku = aggregates.getTopSku();
+        topBranch = aggregates.getTopBranch();
+        summary = aggregates.getSummary();
+    }
+
+    /**
+     * Agregados calculados, o null si la etapa de agregación aún no terminó
+     */
+    public SalesAggregates toAggregates() {
+        if (totalSales == null) {
+            return null;
+        }
+        return new SalesAggregates(totalSales, totalUnits, totalRevenue, topSku, topBranch,
+                fromDate, toDate, branch, summary);
+    }
+
+    /**
+     * Resultado de un intento anterior que ya llegó al resumen: al reintentar solo
+     * falta el email y no se vuelve a llamar al LLM
+     */
+    public SalesAggregates recordedResult() {
+        return summary != null ? toAggregates() : null;
+    }
+
+    public ReportRequestedEvent toEvent() {
+        return ReportRequestedEvent.builder()
+                .requestId(id)
+                .from(fromDate)
+                .to(toDate)
+                .branch(branch)
+                .emailTo(emailTo)
+                .requestedBy(requestedBy)
+                .isPremium(premium)
+                .includeCharts(includeCharts)
+                .attachPdf(attachPdf)
+                .build();
+    }
+}
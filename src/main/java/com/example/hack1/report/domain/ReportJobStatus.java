@@ -0,0 +1,18 @@
+package com.example.hack1.report.domain;
+
+/**
+ * Etapas de un reporte. AGGREGATING, SUMMARIZING y EMAILING son "en curso":
+ * el trabajo tiene dueño (lockedBy) y lease vigente.
+ */
+public enum ReportJobStatus {
+    QUEUED,
+    AGGREGATING,
+    SUMMARIZING,
+    EMAILING,
+    DONE,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == DONE || this == FAILED;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.hack1.report.domain;
+
+/**
+ * Carril de la cola de reportes. Se deriva de report_jobs.premium: los premium
+ * (HTML + gráficos + PDF) no compiten en la misma fila que los de texto.
+ */
+public enum ReportLane {
+    STANDARD,
+    PREMIUM;
+
+    public static ReportLane of(boolean premium) {
+        return premium ? PREMIUM : STANDARD;
+    }
+
+    public boolean isPremium() {
+        return this == PREMIUM;
+    }
+}
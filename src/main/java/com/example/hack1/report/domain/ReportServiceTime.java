@@ -0,0 +1,14 @@
+package com.example.hack1.report.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Inicio y fin del último intento de un reporte terminado
+ */
+public record ReportServiceTime(Instant startedAt, Instant finishedAt) {
+
+    public Duration duration() {
+        return Duration.between(startedAt, finishedAt);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.hack1.report.domain;
+
+import com.example.hack1.Id.PrefixedId;
+import com.example.hack1.sales.domain.SalesAggregates;
+import com.example.hack1.sales.domain.UnitsByKey;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Agregados y resumen de un período ya cerrado. Es inmutable: la clave incluye la versión
+ * de datos de la ventana (suma de sales_day_versions), así que un cambio posterior en esas
+ * ventas produce otra clave y este snapshot deja de usarse (y además se borra al invalidarlo).
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "report_snapshots", uniqueConstraints = @UniqueConstraint(
+        name = "uk_report_snapshots_key", columnNames = {"from_date", "to_date", "branch_key", "data_version"}))
+@Builder
+public class ReportSnapshot {
+
+    @Id
+    @PrefixedId("rs_")
+    @Column(length = 50)
+    private String id;
+
+    @Column(name = "from_date", nullable = false)
+    private LocalDate fromDate;
+
+    @Column(name = "to_date", nullable = false)
+    private LocalDate toDate;
+
+    // Sucursal del reporte, o "*" para todas
+    @Column(name = "branch_key", nullable = false)
+    private String branchKey;
+
+    @Column(name = "data_version", nullable = false)
+    private long dataVersion;
+
+    @Column(name = "total_sales", nullable = false)
+    private int totalSales;
+
+    @Column(name = "total_units", nullable = false)
+    private int totalUnits;
+
+    @Column(name = "total_revenue", nullable = false)
+    private double totalRevenue;
+
+    @Column(name = "top_sku")
+    private String topSku;
+
+    @Column(name = "top_branch")
+    private String topBranch;
+
+    @Column(length = 4000)
+    private String summary;
+
+    @Convert(converter = UnitsByKeyListConverter.class)
+    @Column(name = "units_by_sku", columnDefinition = "text")
+    private List<UnitsByKey> unitsBySku;
+
+    @Convert(converter = UnitsByKeyListConverter.class)
+    @Column(name = "units_by_branch", columnDefinition = "text")
+    private List<UnitsByKey> unitsByBranch;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Copia nueva en cada lectura: quien la recibe puede modificarla sin tocar el snapshot
+     */
+    public SalesAggregates toAggregates(String branch) {
+        return new SalesAggregates(totalSales, totalUnits, totalRevenue, topSku, topBranch,
+                fromDate, toDate, branch, summary, unitsBySku, unitsByBranch);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.hack1.report.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Una corrida del reporte semanal programado por período. La fila hace de lock
+ * entre nodos: se toma con SELECT ... FOR UPDATE y quien la reclama queda como
+ * dueño hasta leaseUntil; si ese nodo muere, el siguiente disparo la retoma.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "scheduled_report_runs")
+@Builder
+public class ScheduledReportRun {
+
+    // weekly_<lunes del período>
+    @Id
+    @Column(length = 50)
+    private String id;
+
+    @Column(name = "from_date", nullable = false)
+    private LocalDate fromDate;
+
+    @Column(name = "to_date", nullable = false)
+    private LocalDate toDate;
+
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "jobs_enqueued", nullable = false)
+    private int jobsEnqueued;
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.hack1.report.domain;
+
+import com.example.hack1.sales.domain.UnitsByKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+/**
+ * Desglose de unidades (SKU o sucursal) guardado como JSON en una columna de texto
+ */
+@Converter
+public class UnitsByKeyListConverter implements AttributeConverter<List<UnitsByKey>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<UnitsByKey>> TYPE = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<UnitsByKey> rows) {
+        if (rows == null) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(rows);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el desglose de unidades", e);
+        }
+    }
+
+    @Override
+    public List<UnitsByKey> convertToEntityAttribute(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(json, TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Desglose de unidades corrupto en el snapshot", e);
+        }
+    }
+}
@@ -1,33 +1,61 @@
 package com.example.hack1.sales.Controller;
 
+import com.example.hack1.Config.ReportConcurrencyLimits;
 import com.example.hack1.DTO.Request.PremiumWeeklySummaryRequestDTO;
 import com.example.hack1.DTO.Request.ReportRequestedEvent;
 import com.example.hack1.DTO.Request.SaleRequestDTO;
 import com.example.hack1.DTO.Request.WeeklySummaryRequestDTO;
+import com.example.hack1.DTO.Response.BatchSalesResponseDTO;
 import com.example.hack1.DTO.Response.PremiumWeeklySummaryResponseDTO;
+import com.example.hack1.DTO.Response.ReportStatusResponseDTO;
 import com.example.hack1.DTO.Response.SaleResponseDTO;
+import com.example.hack1.DTO.Response.SaleSliceResponseDTO;
 import com.example.hack1.DTO.Response.WeeklySummaryResponseDTO;
+import com.example.hack1.Exception.BadRequestException;
 import com.example.hack1.User.domain.User;
+import com.example.hack1.report.Service.ReportJobService;
+import com.example.hack1.report.domain.ReportJobStatus;
+import com.example.hack1.sales.Service.SalesRollupService;
 import com.example.hack1.sales.Service.SalesService;
+import com.example.hack1.sales.Service.SummaryStreamService;
+import com.example.hack1.sales.domain.SalesAggregates;
 import com.example.hack1.sales.domain.Sales;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -38,7 +66,20 @@ import java.util.UUID;
 public class SalesController {
 
     private final SalesService salesService;
+    private final SalesRollupService salesRollupService;
+    private final ObjectMapper objectMapper;
     private final ApplicationEventPublisher applicationEventPublisher;  // ✅ AGREGAR ESTA LÍNEA
+    private final ReportJobService reportJobService;
+    private final SummaryStreamService summaryStreamService;
+    private final ReportConcurrencyLimits limits;
+
+    private static final int REPORT_POLL_SECONDS = 5;
+
+    @Value("${sales.batch.max-items:50000}")
+    private int batchMaxItems;
+
+    @Value("${sales.batch.max-bytes:67108864}")
+    private long batchMaxBytes;
 
 
     /**
@@ -54,6 +95,117 @@ public class SalesController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * POST /api/sales/batch
+     * Carga masiva de ventas en un arreglo JSON
+     * Responde con el resultado de cada ítem (CREATED / REJECTED)
+     * El arreglo se lee ítem por ítem: el lote se corta apenas supera max-items o max-bytes
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyAuthority('CENTRAL', 'BRANCH')")
+    public ResponseEntity<BatchSalesResponseDTO> createSalesBatch(HttpServletRequest httpRequest) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(SaleRequestDTO.class);
+        List<SaleRequestDTO> requests = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(batchBody(httpRequest))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("El lote debe ser un arreglo JSON de ventas");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new BadRequestException("JSON inválido");
+                }
+                checkBatchSize(requests.size());
+                requests.add(reader.readValue(parser));
+            }
+        } catch (BatchBodyTooLargeException e) {
+            throw new BadRequestException(e.getMessage());
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("JSON inválido");
+        }
+
+        return ResponseEntity.ok(salesService.createSalesBatch(requests));
+    }
+
+    /**
+     * POST /api/sales/batch (application/x-ndjson)
+     * Carga masiva con una venta JSON por línea; una línea mal formada se rechaza
+     * sin invalidar el resto del lote
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyAuthority('CENTRAL', 'BRANCH')")
+    public ResponseEntity<BatchSalesResponseDTO> createSalesBatchNdjson(HttpServletRequest httpRequest) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(SaleRequestDTO.class);
+        List<SaleRequestDTO> requests = new ArrayList<>();
+
+        try (BufferedReader lines = new BufferedReader(
+                new InputStreamReader(batchBody(httpRequest), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) continue;
+                checkBatchSize(requests.size());
+                try {
+                    requests.add(reader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    requests.add(null);  // se reporta como REJECTED en su índice
+                }
+            }
+        } catch (BatchBodyTooLargeException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+
+        return ResponseEntity.ok(salesService.createSalesBatch(requests));
+    }
+
+    /**
+     * Cuerpo del lote acotado a max-bytes: se rechaza por Content-Length si viene,
+     * y si no (chunked) al pasar el límite mientras se lee. El corte es una IOException
+     * para que Jackson la propague tal cual en vez de envolverla como JSON inválido
+     */
+    private InputStream batchBody(HttpServletRequest httpRequest) throws IOException {
+        if (httpRequest.getContentLengthLong() > batchMaxBytes) {
+            throw new BadRequestException("El lote excede el máximo de " + batchMaxBytes + " bytes");
+        }
+        return new FilterInputStream(httpRequest.getInputStream()) {
+            private long consumed;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) count(1);
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) count(n);
+                return n;
+            }
+
+            private void count(int n) throws BatchBodyTooLargeException {
+                consumed += n;
+                if (consumed > batchMaxBytes) {
+                    throw new BatchBodyTooLargeException(batchMaxBytes);
+                }
+            }
+        };
+    }
+
+    private static final class BatchBodyTooLargeException extends IOException {
+        BatchBodyTooLargeException(long maxBytes) {
+            super("El lote excede el máximo de " + maxBytes + " bytes");
+        }
+    }
+
+    // Se corta al llegar el ítem max-items + 1, sin leer el resto del cuerpo
+    private void checkBatchSize(int itemsRead) {
+        if (itemsRead >= batchMaxItems) {
+            throw new BadRequestException("El lote excede el máximo de " + batchMaxItems + " ventas");
+        }
+    }
+
     /**
      * GET /api/sales/{id}
      * Obtener detalle de una venta específica
@@ -86,6 +238,24 @@ public class SalesController {
         return ResponseEntity.ok(sales);
     }
 
+    /**
+     * GET /api/sales?cursor=
+     * Listar ventas por cursor (keyset sobre soldAt, id), sin COUNT(*)
+     * Query params: from, to, branch, cursor (vacío para la primera página), size
+     * La respuesta incluye next: el cursor opaco de la página siguiente
+     */
+    @GetMapping(params = "cursor")
+    @PreAuthorize("hasAnyAuthority('CENTRAL', 'BRANCH')")
+    public ResponseEntity<SaleSliceResponseDTO> listSalesByCursor(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String branch,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        SaleSliceResponseDTO sales = salesService.listSalesByCursor(from, to, branch, cursor, size);
+        return ResponseEntity.ok(sales);
+    }
+
     /**
      * PUT /api/sales/{id}
      * Actualizar una venta existente
@@ -126,4 +296,53 @@ public class SalesController {
             @Valid @RequestBody PremiumWeeklySummaryRequestDTO request) {
         return ResponseEntity.accepted().body(salesService.requestPremiumWeeklySummary(request));
     }
-}
\ No newline at end of file
+
+    /**
+     * GET /api/sales/summary/stream
+     * Calcula los agregados y transmite el resumen con IA por Server-Sent Events a medida
+     * que el modelo lo escribe (eventos aggregates, chunk..., done)
+     * Query params: from, to (ISO, por defecto la última semana), branch
+     * BRANCH: siempre su propia sucursal
+     */
+    @GetMapping(value = "/summary/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyAuthority('CENTRAL', 'BRANCH')")
+    public SseEmitter streamSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String branch) {
+        // El escaneo comparte el límite reports.limits.db-scan con los reportes encolados
+        SalesAggregates aggregates = limits.getDbScan().call(
+                () -> salesService.aggregateForCurrentUser(from, to, branch));
+        return summaryStreamService.open(aggregates);
+    }
+
+    /**
+     * GET /api/sales/summary/{requestId}
+     * Estado del reporte (QUEUED, AGGREGATING, SUMMARIZING, EMAILING, DONE, FAILED),
+     * tiempos por etapa y agregados en cuanto están disponibles.
+     * Mientras no termina, Retry-After indica cuándo volver a consultar.
+     */
+    @GetMapping("/summary/{requestId}")
+    @PreAuthorize("hasAnyAuthority('CENTRAL', 'BRANCH')")
+    public ResponseEntity<ReportStatusResponseDTO> getReportStatus(@PathVariable String requestId) {
+        ReportStatusResponseDTO status = reportJobService.getStatus(requestId);
+        if (ReportJobStatus.valueOf(status.getStatus()).isTerminal()) {
+            return ResponseEntity.ok(status);
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(REPORT_POLL_SECONDS))
+                .body(status);
+    }
+
+    /**
+     * POST /api/sales/rollup/rebuild
+     * Reconstruir el rollup diario (sales_daily_rollup) desde la tabla sales
+     * Solo CENTRAL
+     */
+    @PostMapping("/rollup/rebuild")
+    @PreAuthorize("hasAuthority('CENTRAL')")
+    public ResponseEntity<Map<String, Object>> rebuildRollup() {
+        int rows = salesRollupService.rebuild();
+        return ResponseEntity.ok(Map.of("rows", rows, "rebuiltAt", Instant.now()));
+    }
+}
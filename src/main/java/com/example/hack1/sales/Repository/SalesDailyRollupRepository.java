@@ -0,0 +1,90 @@
+package com.example.hack1.sales.Repository;
+
+import com.example.hack1.sales.domain.BranchSkuTotals;
+import com.example.hack1.sales.domain.SalesDailyRollup;
+import com.example.hack1.sales.domain.SalesDailyRollupId;
+import com.example.hack1.sales.domain.SalesTotals;
+import com.example.hack1.sales.domain.UnitsByKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, SalesDailyRollupId> {
+
+    // ==========================================
+    // MANTENIMIENTO INCREMENTAL
+    // ==========================================
+
+    /**
+     * Suma (o resta, con valores negativos) una contribución a la fila (día, sucursal, SKU).
+     * El upsert es atómico, así que dos transacciones concurrentes sobre la misma fila no se pisan.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sales_daily_rollup (sale_day, branch, sku, units, revenue, sale_count) " +
+            "VALUES (:day, :branch, :sku, :units, :revenue, :saleCount) " +
+            "ON CONFLICT (sale_day, branch, sku) DO UPDATE SET " +
+            "units = sales_daily_rollup.units + EXCLUDED.units, " +
+            "revenue = sales_daily_rollup.revenue + EXCLUDED.revenue, " +
+            "sale_count = sales_daily_rollup.sale_count + EXCLUDED.sale_count",
+            nativeQuery = true)
+    int upsert(@Param("day") LocalDate day,
+               @Param("branch") String branch,
+               @Param("sku") String sku,
+               @Param("units") long units,
+               @Param("revenue") BigDecimal revenue,
+               @Param("saleCount") long saleCount);
+
+    @Modifying
+    @Query("DELETE FROM SalesDailyRollup r " +
+            "WHERE r.saleDay = :day AND r.branch = :branch AND r.sku = :sku AND r.saleCount <= 0")
+    int deleteIfEmpty(@Param("day") LocalDate day, @Param("branch") String branch, @Param("sku") String sku);
+
+    // ==========================================
+    // RECONSTRUCCIÓN DESDE sales
+    // ==========================================
+
+    @Modifying
+    @Query(value = "DELETE FROM sales_daily_rollup", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO sales_daily_rollup (sale_day, branch, sku, units, revenue, sale_count) " +
+            "SELECT CAST(s.sold_at AT TIME ZONE 'UTC' AS DATE), s.branch, s.sku, " +
+            "SUM(s.units), SUM(s.price * s.units), COUNT(*) " +
+            "FROM sales s GROUP BY 1, 2, 3",
+            nativeQuery = true)
+    int rebuildFromSales();
+
+    // ==========================================
+    // LECTURA PARA REPORTES
+    // ==========================================
+
+    @Query("SELECT new com.example.hack1.sales.domain.SalesTotals(SUM(r.saleCount), SUM(r.units), SUM(r.revenue)) " +
+            "FROM SalesDailyRollup r WHERE r.saleDay BETWEEN :from AND :to")
+    SalesTotals sumTotals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.example.hack1.sales.domain.SalesTotals(SUM(r.saleCount), SUM(r.units), SUM(r.revenue)) " +
+            "FROM SalesDailyRollup r WHERE r.branch = :branch AND r.saleDay BETWEEN :from AND :to")
+    SalesTotals sumTotalsByBranch(@Param("branch") String branch, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.example.hack1.sales.domain.UnitsByKey(r.sku, SUM(r.units)) " +
+            "FROM SalesDailyRollup r WHERE r.saleDay BETWEEN :from AND :to GROUP BY r.sku")
+    List<UnitsByKey> sumUnitsBySku(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.example.hack1.sales.domain.UnitsByKey(r.sku, SUM(r.units)) " +
+            "FROM SalesDailyRollup r WHERE r.branch = :branch AND r.saleDay BETWEEN :from AND :to GROUP BY r.sku")
+    List<UnitsByKey> sumUnitsBySkuForBranch(@Param("branch") String branch, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.example.hack1.sales.domain.UnitsByKey(r.branch, SUM(r.units)) " +
+            "FROM SalesDailyRollup r WHERE r.saleDay BETWEEN :from AND :to GROUP BY r.branch")
+    List<UnitsByKey> sumUnitsByBranch(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.example.hack1.sales.domain.BranchSkuTotals(r.branch, r.sku, SUM(r.saleCount), SUM(r.units), SUM(r.revenue)) " +
+            "FROM SalesDailyRollup r WHERE r.saleDay BETWEEN :from AND :to GROUP BY r.branch, r.sku")
+    List<BranchSkuTotals> sumByBranchAndSku(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
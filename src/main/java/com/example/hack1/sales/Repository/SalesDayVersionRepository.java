@@ -0,0 +1,29 @@
+package com.example.hack1.sales.Repository;
+
+import com.example.hack1.sales.domain.SalesDayVersion;
+import com.example.hack1.sales.domain.SalesDayVersionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface SalesDayVersionRepository extends JpaRepository<SalesDayVersion, SalesDayVersionId> {
+
+    /**
+     * Sube la versión de (día, sucursal); atómico igual que el upsert del rollup
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sales_day_versions (sale_day, branch, version) VALUES (:day, :branch, 1) " +
+            "ON CONFLICT (sale_day, branch) DO UPDATE SET version = sales_day_versions.version + 1",
+            nativeQuery = true)
+    int bump(@Param("day") LocalDate day, @Param("branch") String branch);
+
+    @Query("SELECT COALESCE(SUM(v.version), 0) FROM SalesDayVersion v WHERE v.saleDay BETWEEN :from AND :to")
+    long sumVersions(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(v.version), 0) FROM SalesDayVersion v " +
+            "WHERE v.branch = :branch AND v.saleDay BETWEEN :from AND :to")
+    long sumVersionsByBranch(@Param("branch") String branch, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,16 +1,110 @@
 package com.example.hack1.sales.Repository;
 
+import com.example.hack1.DTO.Response.SaleResponseDTO;
+import com.example.hack1.sales.domain.BranchSkuTotals;
 import com.example.hack1.sales.domain.Sales;
+import com.example.hack1.sales.domain.SalesTotals;
+import com.example.hack1.sales.domain.UnitsByKey;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 public interface SalesRepository extends JpaRepository<Sales, String> {
-    Page<Sales> findBySoldAtBetween(Instant from, Instant to, Pageable pageable);
+    // ==========================================
+    // LECTURA: proyección directa fila -> SaleResponseDTO
+    // (sin entidades en el contexto de persistencia ni proxy de createdByUser)
+    // ==========================================
 
-    Page<Sales> findByBranchAndSoldAtBetween(String branch, Instant from, Instant to, Pageable pageable);
+    String SALE_VIEW = "SELECT new com.example.hack1.DTO.Response.SaleResponseDTO(" +
+            "s.id, s.sku, s.price, s.units, s.soldAt, s.branch) FROM Sales s ";
 
-    Page<Sales> findByBranch(String branch, Pageable pageable);
+    @Query(SALE_VIEW + "WHERE s.id = :id")
+    Optional<SaleResponseDTO> findViewById(@Param("id") String id);
+
+    @Query(value = SALE_VIEW,
+            countQuery = "SELECT COUNT(s) FROM Sales s")
+    Page<SaleResponseDTO> findAllViews(Pageable pageable);
+
+    @Query(value = SALE_VIEW + "WHERE s.branch = :branch",
+            countQuery = "SELECT COUNT(s) FROM Sales s WHERE s.branch = :branch")
+    Page<SaleResponseDTO> findViewsByBranch(@Param("branch") String branch, Pageable pageable);
+
+    @Query(value = SALE_VIEW + "WHERE s.soldAt BETWEEN :from AND :to",
+            countQuery = "SELECT COUNT(s) FROM Sales s WHERE s.soldAt BETWEEN :from AND :to")
+    Page<SaleResponseDTO> findViewsBySoldAtBetween(@Param("from") Instant from, @Param("to") Instant to,
+                                                   Pageable pageable);
+
+    @Query(value = SALE_VIEW + "WHERE s.branch = :branch AND s.soldAt BETWEEN :from AND :to",
+            countQuery = "SELECT COUNT(s) FROM Sales s WHERE s.branch = :branch AND s.soldAt BETWEEN :from AND :to")
+    Page<SaleResponseDTO> findViewsByBranchAndSoldAtBetween(@Param("branch") String branch,
+                                                            @Param("from") Instant from, @Param("to") Instant to,
+                                                            Pageable pageable);
+
+    // ==========================================
+    // PAGINACIÓN POR KEYSET (soldAt, id): Slice sin COUNT(*)
+    // El prefijo soldAt >= :afterSoldAt es redundante pero le da a Postgres el límite
+    // inicial del rango en idx_sales_sold_at_id; con solo el OR recorre desde la primera fila.
+    // ==========================================
+
+    String KEYSET_AFTER = "s.soldAt >= :afterSoldAt " +
+            "AND (s.soldAt > :afterSoldAt OR (s.soldAt = :afterSoldAt AND s.id > :afterId)) ";
+    String KEYSET_ORDER = "ORDER BY s.soldAt, s.id";
+
+    @Query(SALE_VIEW + "WHERE " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<SaleResponseDTO> findViewsAfter(@Param("afterSoldAt") Instant afterSoldAt, @Param("afterId") String afterId,
+                                          Pageable pageable);
+
+    @Query(SALE_VIEW + "WHERE s.branch = :branch AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<SaleResponseDTO> findViewsByBranchAfter(@Param("branch") String branch,
+                                                  @Param("afterSoldAt") Instant afterSoldAt, @Param("afterId") String afterId,
+                                                  Pageable pageable);
+
+    @Query(SALE_VIEW + "WHERE s.soldAt BETWEEN :from AND :to AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<SaleResponseDTO> findViewsBySoldAtBetweenAfter(@Param("from") Instant from, @Param("to") Instant to,
+                                                         @Param("afterSoldAt") Instant afterSoldAt, @Param("afterId") String afterId,
+                                                         Pageable pageable);
+
+    @Query(SALE_VIEW + "WHERE s.branch = :branch AND s.soldAt BETWEEN :from AND :to AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<SaleResponseDTO> findViewsByBranchAndSoldAtBetweenAfter(@Param("branch") String branch,
+                                                                  @Param("from") Instant from, @Param("to") Instant to,
+                                                                  @Param("afterSoldAt") Instant afterSoldAt, @Param("afterId") String afterId,
+                                                                  Pageable pageable);
+
+    // ==========================================
+    // AGREGADOS PARA REPORTES (sin materializar entidades)
+    // ==========================================
+
+    @Query("SELECT new com.example.hack1.sales.domain.SalesTotals(COUNT(s), SUM(s.units), SUM(s.price * s.units)) " +
+            "FROM Sales s WHERE s.soldAt BETWEEN :from AND :to")
+    SalesTotals sumTotals(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT new com.example.hack1.sales.domain.SalesTotals(COUNT(s), SUM(s.units), SUM(s.price * s.units)) " +
+            "FROM Sales s WHERE s.branch = :branch AND s.soldAt BETWEEN :from AND :to")
+    SalesTotals sumTotalsByBranch(@Param("branch") String branch, @Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT new com.example.hack1.sales.domain.UnitsByKey(s.sku, SUM(s.units)) " +
+            "FROM Sales s WHERE s.soldAt BETWEEN :from AND :to GROUP BY s.sku")
+    List<UnitsByKey> sumUnitsBySku(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT new com.example.hack1.sales.domain.UnitsByKey(s.sku, SUM(s.units)) " +
+            "FROM Sales s WHERE s.branch = :branch AND s.soldAt BETWEEN :from AND :to GROUP BY s.sku")
+    List<UnitsByKey> sumUnitsBySkuForBranch(@Param("branch") String branch, @Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT new com.example.hack1.sales.domain.UnitsByKey(s.branch, SUM(s.units)) " +
+            "FROM Sales s WHERE s.soldAt BETWEEN :from AND :to GROUP BY s.branch")
+    List<UnitsByKey> sumUnitsByBranch(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Una sola pasada por el período para el reporte programado de todas las sucursales
+     */
+    @Query("SELECT new com.example.hack1.sales.domain.BranchSkuTotals(s.branch, s.sku, COUNT(s), SUM(s.units), SUM(s.price * s.units)) " +
+            "FROM Sales s WHERE s.soldAt BETWEEN :from AND :to GROUP BY s.branch, s.sku")
+    List<BranchSkuTotals> sumByBranchAndSku(@Param("from") Instant from, @Param("to") Instant to);
 }
@@ -0,0 +1,128 @@
+package com.example.hack1.sales.Service;
+
+import com.example.hack1.sales.Repository.SalesDailyRollupRepository;
+import com.example.hack1.sales.domain.Sales;
+import com.example.hack1.sales.domain.SalesDailyRollup;
+import com.example.hack1.sales.domain.SalesDailyRollupId;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mantiene la tabla sales_daily_rollup.
+ * contribute/retract deben llamarse dentro de la transacción que modifica la venta
+ * para que el rollup nunca quede desalineado con sales.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+    private final SalesDailyRollupRepository rollupRepository;
+
+    @Value("${sales.rollup.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public static LocalDate dayOf(Instant soldAt) {
+        return LocalDate.ofInstant(soldAt, ZoneOffset.UTC);
+    }
+
+    /**
+     * Suma la venta al acumulado de su (día, sucursal, SKU)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void contribute(Sales sale) {
+        apply(sale, 1);
+    }
+
+    /**
+     * Suma un lote de ventas agrupándolo primero en memoria por (día, sucursal, SKU),
+     * así la carga masiva hace un upsert por fila del rollup y no uno por venta.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void contributeAll(Collection<Sales> sales) {
+        applyAll(sales, 1);
+    }
+
+    /**
+     * Resta un conjunto de ventas (p. ej. las de un usuario eliminado en cascada),
+     * agrupadas igual que en contributeAll
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void retractAll(Collection<Sales> sales) {
+        applyAll(sales, -1);
+    }
+
+    /**
+     * Resta la venta de su acumulado. En updateSale se llama ANTES de modificar
+     * la entidad para mover la contribución anterior (sucursal, día o precio viejos).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void retract(Sales sale) {
+        apply(sale, -1);
+    }
+
+    private void applyAll(Collection<Sales> sales, int sign) {
+        Map<SalesDailyRollupId, SalesDailyRollup> deltas = new HashMap<>();
+        for (Sales sale : sales) {
+            SalesDailyRollupId key = new SalesDailyRollupId(dayOf(sale.getSoldAt()), sale.getBranch(), sale.getSku());
+            SalesDailyRollup delta = deltas.computeIfAbsent(key, k -> new SalesDailyRollup(
+                    k.getSaleDay(), k.getBranch(), k.getSku(), 0L, BigDecimal.ZERO, 0L));
+            long units = (long) sign * sale.getUnits();
+            delta.setUnits(delta.getUnits() + units);
+            delta.setRevenue(delta.getRevenue().add(sale.getPrice().multiply(BigDecimal.valueOf(units))));
+            delta.setSaleCount(delta.getSaleCount() + sign);
+        }
+
+        deltas.values().forEach(d -> {
+            rollupRepository.upsert(d.getSaleDay(), d.getBranch(), d.getSku(), d.getUnits(), d.getRevenue(), d.getSaleCount());
+            if (sign < 0) {
+                rollupRepository.deleteIfEmpty(d.getSaleDay(), d.getBranch(), d.getSku());
+            }
+        });
+    }
+
+    private void apply(Sales sale, int sign) {
+        LocalDate day = dayOf(sale.getSoldAt());
+        long units = (long) sign * sale.getUnits();
+        BigDecimal revenue = sale.getPrice().multiply(BigDecimal.valueOf(units));
+
+        rollupRepository.upsert(day, sale.getBranch(), sale.getSku(), units, revenue, sign);
+        if (sign < 0) {
+            rollupRepository.deleteIfEmpty(day, sale.getBranch(), sale.getSku());
+        }
+    }
+
+    /**
+     * Reconstruye el rollup completo a partir de la tabla sales
+     */
+    @Transactional
+    public int rebuild() {
+        int deleted = rollupRepository.deleteAllRows();
+        int inserted = rollupRepository.rebuildFromSales();
+        log.info("📊 Rollup diario reconstruido: {} filas eliminadas, {} filas generadas", deleted, inserted);
+        return inserted;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildOnStartupIfEnabled() {
+        if (rebuildOnStartup) {
+            log.info("🔄 Backfill del rollup diario al iniciar (sales.rollup.rebuild-on-startup=true)");
+            rebuild();
+        }
+    }
+}
@@ -4,26 +4,44 @@ import com.example.hack1.DTO.Request.PremiumWeeklySummaryRequestDTO;
 import com.example.hack1.DTO.Request.ReportRequestedEvent;
 import com.example.hack1.DTO.Request.SaleRequestDTO;
 import com.example.hack1.DTO.Request.WeeklySummaryRequestDTO;
+import com.example.hack1.DTO.Response.BatchSaleResultDTO;
+import com.example.hack1.DTO.Response.BatchSalesResponseDTO;
 import com.example.hack1.DTO.Response.PremiumWeeklySummaryResponseDTO;
 import com.example.hack1.DTO.Response.SaleResponseDTO;
+import com.example.hack1.DTO.Response.SaleSliceResponseDTO;
 import com.example.hack1.DTO.Response.WeeklySummaryResponseDTO;
+import com.example.hack1.Exception.BadRequestException;
 import com.example.hack1.Exception.ResourceNotFoundException;
 import com.example.hack1.Exception.UnauthorizedException;
+import com.example.hack1.Id.IdGenerators;
+import com.example.hack1.Mapper.SalesMapper;
 import com.example.hack1.Models.GitHubModelsService;
+import com.example.hack1.Models.SummaryInput;
+import com.example.hack1.Security.AuthenticatedUser;
 import com.example.hack1.User.Repository.UserRepository;
 import com.example.hack1.User.domain.User;
+import com.example.hack1.report.Service.ReportJobService;
+import com.example.hack1.report.Service.ReportLanes;
+import com.example.hack1.report.Service.ReportSnapshotService;
+import com.example.hack1.report.domain.ReportLane;
+import com.example.hack1.sales.Repository.SalesDailyRollupRepository;
 import com.example.hack1.sales.Repository.SalesRepository;
+import com.example.hack1.sales.domain.BranchSkuTotals;
 import com.example.hack1.sales.domain.Sales;
 import com.example.hack1.sales.domain.SalesAggregates;
+import com.example.hack1.sales.domain.SalesCursor;
+import com.example.hack1.sales.domain.SalesTotals;
+import com.example.hack1.sales.domain.UnitsByKey;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,12 +52,16 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
-import java.util.UUID;
 
 @Slf4j
 @Service
@@ -49,22 +71,34 @@ public class SalesService {
     private final SalesRepository salesRepository;
     private final UserRepository userRepository;
     private final GitHubModelsService gitHubModelsService;
-    private final ModelMapper modelMapper;
-    private final ApplicationEventPublisher applicationEventPublisher;
+    private final SalesMapper salesMapper;
+    private final ReportJobService reportJobService;
+    private final SalesRollupService salesRollupService;
+    private final SalesDailyRollupRepository salesDailyRollupRepository;
+    private final ReportSnapshotService reportSnapshotService;
+    private final ReportLanes reportLanes;
+    private final EntityManager entityManager;
+    private final Validator validator;
+
+    @Value("${sales.rollup.enabled:false}")
+    private boolean rollupEnabled;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int batchSize;
+
+    @Value("${sales.batch.max-items:50000}")
+    private int batchMaxItems;
 
     /**
-     * Obtener el usuario autenticado actual
+     * Obtener el usuario autenticado actual (desde los claims del JWT, sin consultar users)
      */
-    public User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UnauthorizedException("Usuario no autenticado"));
+    public AuthenticatedUser getCurrentUser() {
+        return AuthenticatedUser.current();
     }
 
 
-    public boolean isCentral(User user) {
-        return "CENTRAL".equals(user.getRole().name());
+    public boolean isCentral(AuthenticatedUser user) {
+        return user.isCentral();
     }
 
     private Instant parseSoldAt(String soldAt) {
@@ -79,7 +113,7 @@ public class SalesService {
      */
     @Transactional
     public SaleResponseDTO createSale(SaleRequestDTO request) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         boolean isCentral = isCentral(currentUser);
 
         // Validar permisos de sucursal
@@ -96,13 +130,119 @@ public class SalesService {
                 .price(request.getPrice())
                 .branch(request.getBranch())
                 .soldAt(parseSoldAt(request.getSoldAt()))
-                .createdByUser(currentUser)
+                .createdByUser(userRepository.getReferenceById(currentUser.getId()))
                 .build();
 
         Sales savedSale = salesRepository.save(sale);
+        salesRollupService.contribute(savedSale);
+        // Una venta con fecha pasada también cambia períodos ya cerrados
+        reportSnapshotService.touch(savedSale.getSoldAt(), savedSale.getBranch());
         log.info("Venta creada: {} por usuario: {}", savedSale.getId(), currentUser.getUsername());
 
-        return modelMapper.map(savedSale, SaleResponseDTO.class);
+        return salesMapper.toResponse(savedSale);
+    }
+
+    /**
+     * POST /api/sales/batch - Carga masiva de ventas (sincronización de POS)
+     * Los permisos de sucursal se validan una sola vez por request y las ventas
+     * válidas se escriben en lotes JDBC del tamaño de hibernate.jdbc.batch_size.
+     * Devuelve un resultado por ítem: CREATED con su id o REJECTED con el motivo.
+     */
+    @Transactional
+    public BatchSalesResponseDTO createSalesBatch(List<SaleRequestDTO> requests) {
+        if (requests.size() > batchMaxItems) {
+            throw new BadRequestException("El lote excede el máximo de " + batchMaxItems + " ventas");
+        }
+
+        AuthenticatedUser currentUser = getCurrentUser();
+        boolean isCentral = isCentral(currentUser);
+        String userBranch = currentUser.getBranch();
+        User createdBy = userRepository.getReferenceById(currentUser.getId());
+
+        List<BatchSaleResultDTO> results = new ArrayList<>(requests.size());
+        List<Sales> chunk = new ArrayList<>(batchSize);
+        List<Integer> chunkIndexes = new ArrayList<>(batchSize);
+        int created = 0;
+
+        for (int i = 0; i < requests.size(); i++) {
+            SaleRequestDTO request = requests.get(i);
+            String error = validateBatchItem(request, isCentral, userBranch);
+            if (error != null) {
+                results.add(BatchSaleResultDTO.rejected(i, error));
+                continue;
+            }
+
+            chunk.add(Sales.builder()
+                    .sku(request.getSku())
+                    .units(request.getUnits())
+                    .price(request.getPrice())
+                    .branch(request.getBranch())
+                    .soldAt(parseSoldAt(request.getSoldAt()))
+                    .createdByUser(createdBy)
+                    .build());
+            chunkIndexes.add(i);
+
+            if (chunk.size() == batchSize) {
+                created += writeChunk(chunk, chunkIndexes, results);
+            }
+        }
+        created += writeChunk(chunk, chunkIndexes, results);
+
+        results.sort(Comparator.comparingInt(BatchSaleResultDTO::getIndex));
+        log.info("Carga masiva: {} recibidas, {} creadas por usuario: {}",
+                requests.size(), created, currentUser.getUsername());
+
+        return new BatchSalesResponseDTO(requests.size(), created, requests.size() - created, results);
+    }
+
+    private String validateBatchItem(SaleRequestDTO request, boolean isCentral, String userBranch) {
+        if (request == null) {
+            return "JSON inválido";
+        }
+
+        Set<ConstraintViolation<SaleRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        if (!isCentral && !request.getBranch().equalsIgnoreCase(userBranch)) {
+            return "Usuario BRANCH solo puede crear ventas para su sucursal: " + userBranch;
+        }
+
+        try {
+            parseSoldAt(request.getSoldAt());
+        } catch (DateTimeParseException e) {
+            return "soldAt: La fecha debe estar en formato ISO-8601";
+        }
+        return null;
+    }
+
+    /**
+     * Persiste un lote, actualiza el rollup y vacía el contexto de persistencia
+     * para que la memoria no crezca con el tamaño de la carga.
+     */
+    private int writeChunk(List<Sales> chunk, List<Integer> chunkIndexes, List<BatchSaleResultDTO> results) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        salesRepository.saveAll(chunk);
+        salesRollupService.contributeAll(chunk);
+        reportSnapshotService.touchAll(chunk);
+        entityManager.flush();
+        entityManager.clear();
+
+        for (int j = 0; j < chunk.size(); j++) {
+            results.add(BatchSaleResultDTO.created(chunkIndexes.get(j), chunk.get(j).getId()));
+        }
+
+        int written = chunk.size();
+        chunk.clear();
+        chunkIndexes.clear();
+        return written;
     }
 
     /**
@@ -112,10 +252,10 @@ public class SalesService {
      */
     @Transactional(readOnly = true)
     public SaleResponseDTO getSale(String id) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         boolean isCentral = isCentral(currentUser);
 
-        Sales sale = salesRepository.findById(id)
+        SaleResponseDTO sale = salesRepository.findViewById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Venta no encontrada"));
 
         // Validar permisos
@@ -123,7 +263,7 @@ public class SalesService {
             throw new UnauthorizedException("Acceso denegado a venta de otra sucursal");
         }
 
-        return modelMapper.map(sale, SaleResponseDTO.class);
+        return sale;
     }
 
     /**
@@ -133,7 +273,7 @@ public class SalesService {
      */
     @Transactional(readOnly = true)
     public Page<SaleResponseDTO> listSales(String from, String to, String branch, int page, int size) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         boolean isCentral = isCentral(currentUser);
 
         // Si es BRANCH, forzar su sucursal
@@ -145,21 +285,57 @@ public class SalesService {
         Instant toInstant = parseSoldAt(to);
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Sales> salesPage;
+        // Filtrar según parámetros; las filas llegan ya proyectadas a DTO
+        if (fromInstant != null && toInstant != null && branch != null && !branch.isBlank()) {
+            return salesRepository.findViewsByBranchAndSoldAtBetween(branch, fromInstant, toInstant, pageable);
+        } else if (fromInstant != null && toInstant != null) {
+            return salesRepository.findViewsBySoldAtBetween(fromInstant, toInstant, pageable);
+        } else if (branch != null && !branch.isBlank()) {
+            return salesRepository.findViewsByBranch(branch, pageable);
+        } else {
+            return salesRepository.findAllViews(pageable);
+        }
+    }
+
+    /**
+     * GET /api/sales?cursor=... - Listar ventas por keyset (soldAt, id)
+     * Devuelve un Slice sin COUNT(*): el costo no crece con la profundidad de la página.
+     * cursor vacío = primera página; next = token para la página siguiente.
+     */
+    @Transactional(readOnly = true)
+    public SaleSliceResponseDTO listSalesByCursor(String from, String to, String branch, String cursor, int size) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        boolean isCentral = isCentral(currentUser);
+
+        // Si es BRANCH, forzar su sucursal
+        if (!isCentral) {
+            branch = currentUser.getBranch();
+        }
+
+        Instant fromInstant = parseSoldAt(from);
+        Instant toInstant = parseSoldAt(to);
+        SalesCursor after = SalesCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size);
+
+        Slice<SaleResponseDTO> slice;
 
-        // Filtrar según parámetros
         if (fromInstant != null && toInstant != null && branch != null && !branch.isBlank()) {
-            salesPage = salesRepository.findByBranchAndSoldAtBetween(branch, fromInstant, toInstant, pageable);
+            slice = salesRepository.findViewsByBranchAndSoldAtBetweenAfter(
+                    branch, fromInstant, toInstant, after.getSoldAt(), after.getId(), limit);
         } else if (fromInstant != null && toInstant != null) {
-            salesPage = salesRepository.findBySoldAtBetween(fromInstant, toInstant, pageable);
+            slice = salesRepository.findViewsBySoldAtBetweenAfter(
+                    fromInstant, toInstant, after.getSoldAt(), after.getId(), limit);
         } else if (branch != null && !branch.isBlank()) {
-            salesPage = salesRepository.findByBranch(branch, pageable);
+            slice = salesRepository.findViewsByBranchAfter(branch, after.getSoldAt(), after.getId(), limit);
         } else {
-            salesPage = salesRepository.findAll(pageable);
+            slice = salesRepository.findViewsAfter(after.getSoldAt(), after.getId(), limit);
         }
 
-        // Convertir a DTO usando ModelMapper
-        return salesPage.map(sale -> modelMapper.map(sale, SaleResponseDTO.class));
+        List<SaleResponseDTO> content = slice.getContent();
+        SaleResponseDTO last = content.isEmpty() ? null : content.get(content.size() - 1);
+        String next = slice.hasNext() ? SalesCursor.after(last.getSoldAt(), last.getId()).encode() : null;
+
+        return new SaleSliceResponseDTO(content, content.size(), slice.hasNext(), next);
     }
 
     /**
@@ -169,7 +345,7 @@ public class SalesService {
      */
     @Transactional
     public SaleResponseDTO updateSale(String id, SaleRequestDTO request) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         boolean isCentral = isCentral(currentUser);
 
         Sales existingSale = salesRepository.findById(id)
@@ -180,6 +356,10 @@ public class SalesService {
             throw new UnauthorizedException("Acceso denegado a venta de otra sucursal");
         }
 
+        // Retirar la contribución anterior del rollup antes de modificar la venta
+        salesRollupService.retract(existingSale);
+        reportSnapshotService.touch(existingSale.getSoldAt(), existingSale.getBranch());
+
         // Validar cambio de sucursal
         if (!isCentral) {
             if (request.getBranch() != null &&
@@ -202,9 +382,11 @@ public class SalesService {
         if (request.getSoldAt() != null) existingSale.setSoldAt(parseSoldAt(request.getSoldAt()));
 
         Sales updatedSale = salesRepository.save(existingSale);
+        salesRollupService.contribute(updatedSale);
+        reportSnapshotService.touch(updatedSale.getSoldAt(), updatedSale.getBranch());
         log.info("Venta actualizada: {} por usuario: {}", updatedSale.getId(), currentUser.getUsername());
 
-        return modelMapper.map(updatedSale, SaleResponseDTO.class);
+        return salesMapper.toResponse(updatedSale);
     }
 
     /**
@@ -213,94 +395,244 @@ public class SalesService {
      */
     @Transactional
     public void deleteSale(String id) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
 
         if (!isCentral(currentUser)) {
             throw new UnauthorizedException("Solo usuarios CENTRAL pueden eliminar ventas");
         }
 
-        if (!salesRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Venta no encontrada");
-        }
+        Sales sale = salesRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Venta no encontrada"));
 
-        salesRepository.deleteById(id);
+        salesRollupService.retract(sale);
+        reportSnapshotService.touch(sale.getSoldAt(), sale.getBranch());
+        salesRepository.delete(sale);
         log.info("Venta eliminada: {} por usuario: {}", id, currentUser.getUsername());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Agregados + resumen con IA, en un solo paso
+     */
     public SalesAggregates calculateAggregatesForReport(LocalDate from, LocalDate to, String branch) {
+        SalesAggregates aggregates = aggregateSales(from, to, branch);
+        if (aggregates.getSummary() == null) {
+            aggregates.setSummary(summarize(aggregates));
+        }
+        return aggregates;
+    }
+
+    /**
+     * Agregados del período para el usuario actual (BRANCH queda limitado a su sucursal).
+     * Sin fechas se toma la última semana.
+     */
+    @Transactional(readOnly = true)
+    public SalesAggregates aggregateForCurrentUser(LocalDate from, LocalDate to, String branch) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        if (!isCentral(currentUser)) {
+            branch = currentUser.getBranch();
+        }
+
+        LocalDate effectiveFrom = (from != null) ? from : LocalDate.now().minusDays(7);
+        LocalDate effectiveTo = (to != null) ? to : LocalDate.now();
+        return aggregateSales(effectiveFrom, effectiveTo, branch);
+    }
+
+    /**
+     * Solo la parte de base de datos del reporte. El resumen queda en null si hay ventas
+     * (lo completa summarize), así la transacción no queda abierta durante la llamada al LLM.
+     */
+    @Transactional(readOnly = true)
+    public SalesAggregates aggregateSales(LocalDate from, LocalDate to, String branch) {
         // Si from y to son null, calcular la última semana
         if (from == null || to == null) {
             to = LocalDate.now();
             from = to.minusDays(7);
         }
 
-        Instant startInstant = from.atStartOfDay(ZoneOffset.UTC).toInstant();
-        Instant endInstant = to.atTime(LocalTime.MAX).atZone(ZoneOffset.UTC).toInstant();
-
-        Page<Sales> salesPage;
         boolean isFilteredByBranch = (branch != null && !branch.isBlank());
 
-        if (isFilteredByBranch) {
-            salesPage = salesRepository.findByBranchAndSoldAtBetween(
-                    branch, startInstant, endInstant, Pageable.unpaged()
-            );
-        } else {
-            salesPage = salesRepository.findBySoldAtBetween(
-                    startInstant, endInstant, Pageable.unpaged()
-            );
+        // Todo se agrega en la base de datos: nunca se materializa una entidad Sales
+        SalesTotals totals = queryTotals(from, to, isFilteredByBranch ? branch : null);
+
+        if (totals == null || totals.getTotalSales() == null || totals.getTotalSales() == 0) {
+            return emptyAggregates(from, to, branch);
         }
 
-        List<Sales> salesList = salesPage.getContent();
+        int totalSales = totals.getTotalSales().intValue();
+        int totalUnits = totals.getTotalUnits().intValue();
+        BigDecimal totalRevenue = totals.getTotalRevenue().setScale(2, RoundingMode.HALF_UP);
+
+        List<UnitsByKey> unitsBySku = queryUnitsBySku(from, to, isFilteredByBranch ? branch : null);
+        String topSku = topKey(unitsBySku);
+
+        List<UnitsByKey> unitsByBranch = isFilteredByBranch
+                ? List.of(new UnitsByKey(branch, (long) totalUnits))
+                : queryUnitsByBranch(from, to);
+        String topBranch = isFilteredByBranch ? branch : topKey(unitsByBranch);
+
+        return new SalesAggregates(
+                totalSales, totalUnits, totalRevenue.doubleValue(),
+                topSku, topBranch, from, to, branch, null,
+                unitsBySku, unitsByBranch
+        );
+    }
+
+    /**
+     * ✅ Generar resumen con IA a partir de los agregados
+     */
+    public String summarize(SalesAggregates aggregates) {
+        return gitHubModelsService.generateSummary(
+                aggregates.getTotalUnits(),
+                aggregates.getTotalRevenue(),
+                aggregates.getTopSku(),
+                aggregates.getTopBranch()
+        );
+    }
 
-        if (salesList.isEmpty()) {
-            return new SalesAggregates(0, 0, 0.0, "N/A", "N/A", from, to, branch,
-                    "No hay ventas registradas en este período.");
+    /**
+     * Completa el resumen de varios reportes (p. ej. una corrida por sucursal) con
+     * pocas llamadas al LLM en lote en lugar de una por reporte
+     */
+    public void summarizeAll(List<SalesAggregates> reports) {
+        List<SalesAggregates> pending = reports.stream()
+                .filter(a -> a.getSummary() == null)
+                .toList();
+        if (pending.isEmpty()) {
+            return;
         }
 
-        int totalSales = salesList.size();
-        int totalUnits = salesList.stream().mapToInt(Sales::getUnits).sum();
+        List<String> summaries = gitHubModelsService.generateSummaries(pending.stream()
+                .map(a -> new SummaryInput(a.getTotalUnits(), a.getTotalRevenue(), a.getTopSku(), a.getTopBranch()))
+                .toList());
+        for (int i = 0; i < pending.size(); i++) {
+            pending.get(i).setSummary(summaries.get(i));
+        }
+    }
 
-        BigDecimal totalRevenue = salesList.stream()
-                .map(s -> s.getPrice().multiply(BigDecimal.valueOf(s.getUnits())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Agregados de todas las sucursales en una sola pasada (GROUP BY sucursal, SKU).
+     * El primer elemento es el total general (branch null); le siguen las sucursales
+     * con ventas, ordenadas por nombre. Los resúmenes quedan para summarizeAll.
+     */
+    @Transactional(readOnly = true)
+    public List<SalesAggregates> aggregateAllBranches(LocalDate from, LocalDate to) {
+        List<BranchSkuTotals> rows = rollupEnabled
+                ? salesDailyRollupRepository.sumByBranchAndSku(from, to)
+                : salesRepository.sumByBranchAndSku(startOf(from), endOf(to));
+
+        Map<String, List<BranchSkuTotals>> byBranch = rows.stream()
+                .collect(Collectors.groupingBy(BranchSkuTotals::getBranch, TreeMap::new, Collectors.toList()));
+
+        List<UnitsByKey> unitsByBranch = new ArrayList<>();
+        List<SalesAggregates> reports = new ArrayList<>(byBranch.size() + 1);
+        reports.add(null);  // lugar del total general
+        byBranch.forEach((branch, branchRows) -> {
+            SalesAggregates aggregates = fromGroupedRows(from, to, branch, branchRows);
+            unitsByBranch.add(new UnitsByKey(branch, (long) aggregates.getTotalUnits()));
+            reports.add(aggregates);
+        });
+
+        SalesAggregates overall = fromGroupedRows(from, to, null, rows);
+        if (overall.getSummary() == null) {
+            overall.setUnitsByBranch(unitsByBranch);
+            overall.setTopBranch(topKey(unitsByBranch));
+        }
+        reports.set(0, overall);
+        return reports;
+    }
 
-        String topSku = salesList.stream()
-                .collect(Collectors.groupingBy(Sales::getSku, Collectors.summingInt(Sales::getUnits)))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("N/A");
+    /**
+     * Sin ventas devuelve el mismo agregado vacío (con resumen armado) que aggregateSales
+     */
+    public SalesAggregates emptyAggregates(LocalDate from, LocalDate to, String branch) {
+        return new SalesAggregates(0, 0, 0.0, "N/A", "N/A", from, to, branch,
+                "No hay ventas registradas en este período.");
+    }
 
-        String topBranch = isFilteredByBranch ? branch :
-                salesList.stream()
-                        .collect(Collectors.groupingBy(Sales::getBranch, Collectors.summingInt(Sales::getUnits)))
-                        .entrySet().stream()
-                        .max(Map.Entry.comparingByValue())
-                        .map(Map.Entry::getKey)
-                        .orElse("N/A");
-
-        // ✅ Generar resumen con IA
-        String summary = gitHubModelsService.generateSummary(
-                totalUnits,
-                totalRevenue.doubleValue(),
-                topSku,
-                topBranch
-        );
+    private SalesAggregates fromGroupedRows(LocalDate from, LocalDate to, String branch, List<BranchSkuTotals> rows) {
+        if (rows.isEmpty()) {
+            return emptyAggregates(from, to, branch);
+        }
+
+        long totalSales = 0;
+        long totalUnits = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        Map<String, Long> unitsBySku = new HashMap<>();
+        for (BranchSkuTotals row : rows) {
+            totalSales += row.getTotalSales();
+            totalUnits += row.getTotalUnits();
+            totalRevenue = totalRevenue.add(row.getTotalRevenue());
+            unitsBySku.merge(row.getSku(), row.getTotalUnits(), Long::sum);
+        }
+
+        List<UnitsByKey> skuRows = unitsBySku.entrySet().stream()
+                .map(e -> new UnitsByKey(e.getKey(), e.getValue()))
+                .toList();
+        List<UnitsByKey> branchRows = branch != null ? List.of(new UnitsByKey(branch, totalUnits)) : List.of();
 
         return new SalesAggregates(
-                totalSales, totalUnits, totalRevenue.doubleValue(),
-                topSku, topBranch, from, to, branch, summary
+                (int) totalSales, (int) totalUnits, totalRevenue.setScale(2, RoundingMode.HALF_UP).doubleValue(),
+                topKey(skuRows), branch, from, to, branch, null,
+                skuRows, branchRows
         );
     }
 
+    // ==========================================
+    // FUENTE DE AGREGADOS: rollup diario o tabla sales
+    // ==========================================
+
+    private SalesTotals queryTotals(LocalDate from, LocalDate to, String branch) {
+        if (rollupEnabled) {
+            return branch != null
+                    ? salesDailyRollupRepository.sumTotalsByBranch(branch, from, to)
+                    : salesDailyRollupRepository.sumTotals(from, to);
+        }
+        return branch != null
+                ? salesRepository.sumTotalsByBranch(branch, startOf(from), endOf(to))
+                : salesRepository.sumTotals(startOf(from), endOf(to));
+    }
+
+    private List<UnitsByKey> queryUnitsBySku(LocalDate from, LocalDate to, String branch) {
+        if (rollupEnabled) {
+            return branch != null
+                    ? salesDailyRollupRepository.sumUnitsBySkuForBranch(branch, from, to)
+                    : salesDailyRollupRepository.sumUnitsBySku(from, to);
+        }
+        return branch != null
+                ? salesRepository.sumUnitsBySkuForBranch(branch, startOf(from), endOf(to))
+                : salesRepository.sumUnitsBySku(startOf(from), endOf(to));
+    }
+
+    private List<UnitsByKey> queryUnitsByBranch(LocalDate from, LocalDate to) {
+        return rollupEnabled
+                ? salesDailyRollupRepository.sumUnitsByBranch(from, to)
+                : salesRepository.sumUnitsByBranch(startOf(from), endOf(to));
+    }
+
+    private Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private Instant endOf(LocalDate day) {
+        return day.atTime(LocalTime.MAX).atZone(ZoneOffset.UTC).toInstant();
+    }
+
+    /**
+     * Clave con más unidades de un GROUP BY (SKU o sucursal)
+     */
+    private String topKey(List<UnitsByKey> rows) {
+        return rows.stream()
+                .max(Comparator.comparingLong(UnitsByKey::getUnits))
+                .map(UnitsByKey::getKey)
+                .orElse("N/A");
+    }
+
     /**
      * Mueve aquí la lógica de /summary/weekly
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public WeeklySummaryResponseDTO requestWeeklySummary(WeeklySummaryRequestDTO request) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         boolean isCentral = isCentral(currentUser);
 
         String branch = request.getBranch();
@@ -311,7 +643,7 @@ public class SalesService {
         LocalDate from = (request.getFrom() != null) ? request.getFrom() : LocalDate.now().minusDays(7);
         LocalDate to = (request.getTo() != null) ? request.getTo() : LocalDate.now();
 
-        String requestId = "req_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String requestId = IdGenerators.current().nextId("req_");
 
         ReportRequestedEvent event = ReportRequestedEvent.builder()
                 .requestId(requestId)
@@ -323,14 +655,15 @@ public class SalesService {
                 // booleans por defecto en false
                 .build();
 
-        applicationEventPublisher.publishEvent(event);
-        log.info("📤 Evento publicado para procesamiento asíncrono: {}", requestId);
+        // Se persiste en report_jobs en esta misma transacción (outbox)
+        reportJobService.enqueue(event);
 
         return new WeeklySummaryResponseDTO(
                 requestId,
-                "PROCESSING",
-                "Su solicitud de reporte está siendo procesada. Recibirá el resumen en " + request.getEmailTo() + " en unos momentos.",
-                "30-60 segundos",
+                "QUEUED",
+                "Su solicitud de reporte está en cola. Recibirá el resumen en " + request.getEmailTo() +
+                        "; consulte el avance en GET /api/sales/summary/" + requestId,
+                ReportLanes.describe(reportLanes.estimateWait(ReportLane.STANDARD)),
                 Instant.now()
         );
     }
@@ -338,9 +671,9 @@ public class SalesService {
     /**
      * Mueve aquí la lógica de /summary/weekly/premium
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public PremiumWeeklySummaryResponseDTO requestPremiumWeeklySummary(PremiumWeeklySummaryRequestDTO request) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         boolean isCentral = isCentral(currentUser);
 
         String branch = request.getBranch();
@@ -351,7 +684,7 @@ public class SalesService {
         LocalDate from = (request.getFrom() != null) ? request.getFrom() : LocalDate.now().minusDays(7);
         LocalDate to = (request.getTo() != null) ? request.getTo() : LocalDate.now();
 
-        String requestId = "req_premium_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String requestId = IdGenerators.current().nextId("req_premium_");
 
         boolean includeCharts = (request.getIncludeCharts() == null) || request.getIncludeCharts();
         boolean attachPdf = (request.getAttachPdf() == null) || request.getAttachPdf();
@@ -368,8 +701,7 @@ public class SalesService {
                 .attachPdf(attachPdf)
                 .build();
 
-        applicationEventPublisher.publishEvent(event);
-        log.info("📤 Evento premium publicado para procesamiento asíncrono: {}", requestId);
+        reportJobService.enqueue(event);
 
         List<String> features = new ArrayList<>();
         features.add("HTML_FORMAT");
@@ -378,9 +710,10 @@ public class SalesService {
 
         return new PremiumWeeklySummaryResponseDTO(
                 requestId,
-                "PROCESSING",
-                "Su reporte premium está siendo generado. Incluirá gráficos y PDF adjunto.",
-                "60-90 segundos",
+                "QUEUED",
+                "Su reporte premium está en cola. Incluirá gráficos y PDF adjunto; " +
+                        "consulte el avance en GET /api/sales/summary/" + requestId,
+                ReportLanes.describe(reportLanes.estimateWait(ReportLane.PREMIUM)),
                 Instant.now(),
                 features
         );
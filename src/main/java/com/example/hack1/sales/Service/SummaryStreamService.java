@@ -0,0 +1,117 @@
+package com.example.hack1.sales.Service;
+
+import com.example.hack1.Models.GitHubModelsStreamClient;
+import com.example.hack1.Models.SummaryInput;
+import com.example.hack1.sales.domain.SalesAggregates;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resúmenes con IA por Server-Sent Events. Cada conexión abierta ocupa un hilo virtual
+ * (no uno de plataforma) mientras el modelo escribe, así cientos de espectadores son baratos.
+ * Eventos: "aggregates" (los agregados), "chunk" (fragmentos del resumen), "done" o "error".
+ * Métrica: summary.stream.active
+ */
+@Slf4j
+@Service
+public class SummaryStreamService implements DisposableBean {
+
+    private final ExecutorService streams =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("summary-stream-", 0).factory());
+    private final GitHubModelsStreamClient streamClient;
+    private final int maxStreams;
+    private final long timeoutMs;
+    private final AtomicInteger active = new AtomicInteger();
+
+    public SummaryStreamService(GitHubModelsStreamClient streamClient,
+                                @Value("${summary.stream.max-concurrent:1000}") int maxStreams,
+                                @Value("${summary.stream.timeout-ms:120000}") long timeoutMs,
+                                MeterRegistry meterRegistry) {
+        this.streamClient = streamClient;
+        this.maxStreams = maxStreams;
+        this.timeoutMs = timeoutMs;
+        Gauge.builder("summary.stream.active", active, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public SseEmitter open(SalesAggregates aggregates) {
+        if (active.incrementAndGet() > maxStreams) {
+            active.decrementAndGet();
+            throw new TaskRejectedException("Se alcanzó el máximo de " + maxStreams + " resúmenes en streaming");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        try {
+            streams.execute(() -> {
+                try {
+                    stream(aggregates, emitter);
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            active.decrementAndGet();
+            throw new TaskRejectedException("El streaming de resúmenes no acepta conexiones", e);
+        }
+        return emitter;
+    }
+
+    private void stream(SalesAggregates aggregates, SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().name("aggregates").data(aggregates));
+
+            if (aggregates.getSummary() != null) {
+                // Sin ventas en el período: el resumen ya viene listo
+                emitter.send(SseEmitter.event().name("chunk").data(aggregates.getSummary()));
+            } else {
+                streamClient.streamSummary(
+                        new SummaryInput(aggregates.getTotalUnits(), aggregates.getTotalRevenue(),
+                                aggregates.getTopSku(), aggregates.getTopBranch()),
+                        chunk -> send(emitter, chunk));
+            }
+
+            emitter.send(SseEmitter.event().name("done").data(""));
+            emitter.complete();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.completeWithError(e);
+        } catch (IOException | RuntimeException e) {
+            // Si quien falló es el cliente (conexión cerrada) el evento de error tampoco llega
+            log.warn("⚠️ Stream de resumen interrumpido: {}", e.getMessage());
+            try {
+                emitter.send(SseEmitter.event().name("error").data("No se pudo completar el resumen"));
+            } catch (IOException | IllegalStateException ignored) {
+                // el cliente ya no está
+            }
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static void send(SseEmitter emitter, String chunk) {
+        try {
+            emitter.send(SseEmitter.event().name("chunk").data(chunk));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    @Override
+    public void destroy() {
+        streams.shutdownNow();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.hack1.sales.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila de un GROUP BY (sucursal, SKU): de estas filas salen, en una sola pasada,
+ * los agregados de todas las sucursales y el total general.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BranchSkuTotals {
+    private String branch;
+    private String sku;
+    private Long totalSales;
+    private Long totalUnits;
+    private BigDecimal totalRevenue;
+}
@@ -1,5 +1,6 @@
 package com.example.hack1.sales.domain;
 
+import com.example.hack1.Id.PrefixedId;
 import com.example.hack1.User.domain.User;
 import jakarta.persistence.*;
 import lombok.*;
@@ -7,18 +8,21 @@ import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.UUID;
 
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = {
+        @Index(name = "idx_sales_sold_at_id", columnList = "sold_at, id"),
+        @Index(name = "idx_sales_branch_sold_at_id", columnList = "branch, sold_at, id")
+})
 @Builder
 public class Sales {
 
     @Id
+    @PrefixedId("s_")
     @Column(length = 50)
     private String id;
 
@@ -45,17 +49,4 @@ public class Sales {
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
-
-    @PrePersist
-    protected void onCreate() {
-        if (id == null) {
-            // Formato: s_XX + random
-            long timestamp = System.currentTimeMillis() % 100;
-            String randomPart = UUID.randomUUID().toString()
-                    .replace("-", "")
-                    .toUpperCase()
-                    .substring(0, 16);
-            id = String.format("s_%02d%s", timestamp, randomPart);
-        }
-    }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -19,4 +20,13 @@ public class SalesAggregates {
     private LocalDate to;
     private String branch;
     private String summary;  // ✅ AGREGAR ESTE CAMPO
+
+    // Desglose de unidades para los gráficos del reporte premium (no se guarda en report_jobs)
+    private List<UnitsByKey> unitsBySku;
+    private List<UnitsByKey> unitsByBranch;
+
+    public SalesAggregates(int totalSales, int totalUnits, double totalRevenue, String topSku, String topBranch,
+                           LocalDate from, LocalDate to, String branch, String summary) {
+        this(totalSales, totalUnits, totalRevenue, topSku, topBranch, from, to, branch, summary, null, null);
+    }
 }
@@ -0,0 +1,48 @@
+package com.example.hack1.sales.domain;
+
+import com.example.hack1.Exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Posición de paginación por keyset sobre (soldAt, id).
+ * Se serializa como un token opaco base64url para el parámetro cursor de GET /api/sales.
+ */
+@Getter
+@AllArgsConstructor
+public class SalesCursor {
+
+    /**
+     * Posición anterior a cualquier venta: se usa para la primera página
+     */
+    public static final SalesCursor START = new SalesCursor(Instant.parse("0001-01-01T00:00:00Z"), "");
+
+    private final Instant soldAt;
+    private final String id;
+
+    public static SalesCursor after(String soldAt, String id) {
+        return new SalesCursor(Instant.parse(soldAt), id);
+    }
+
+    public String encode() {
+        String raw = soldAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SalesCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new SalesCursor(Instant.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.hack1.sales.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Acumulado diario de ventas por sucursal y SKU.
+ * Se mantiene incrementalmente en la misma transacción que crea, actualiza
+ * o elimina cada venta, de modo que los reportes leen días × sucursales × SKUs
+ * en lugar de recorrer la tabla sales.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "sales_daily_rollup")
+@IdClass(SalesDailyRollupId.class)
+@Builder
+public class SalesDailyRollup {
+
+    @Id
+    @Column(name = "sale_day", nullable = false)
+    private LocalDate saleDay;
+
+    @Id
+    @Column(nullable = false)
+    private String branch;
+
+    @Id
+    @Column(nullable = false)
+    private String sku;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "sale_count", nullable = false)
+    private Long saleCount;
+}
@@ -0,0 +1,20 @@
+package com.example.hack1.sales.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Clave compuesta del rollup diario: (día UTC, sucursal, SKU)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailyRollupId implements Serializable {
+    private LocalDate saleDay;
+    private String branch;
+    private String sku;
+}
@@ -0,0 +1,34 @@
+package com.example.hack1.sales.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Contador de cambios por (día, sucursal): sube cada vez que se crea, modifica o
+ * elimina una venta de ese día y sucursal. La suma sobre una ventana de días solo
+ * crece, así que identifica el estado de los datos de un período (la "versión" de
+ * los snapshots de reportes).
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "sales_day_versions")
+@IdClass(SalesDayVersionId.class)
+@Builder
+public class SalesDayVersion {
+
+    @Id
+    @Column(name = "sale_day", nullable = false)
+    private LocalDate saleDay;
+
+    @Id
+    @Column(nullable = false)
+    private String branch;
+
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,19 @@
+package com.example.hack1.sales.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Clave compuesta de la versión de datos: (día UTC, sucursal)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDayVersionId implements Serializable {
+    private LocalDate saleDay;
+    private String branch;
+}
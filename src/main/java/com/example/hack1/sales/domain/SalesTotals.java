@@ -0,0 +1,20 @@
+package com.example.hack1.sales.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Totales de un rango de ventas calculados directamente en la base de datos
+ * (COUNT / SUM), sin cargar entidades {@link Sales}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesTotals {
+    private Long totalSales;
+    private Long totalUnits;
+    private BigDecimal totalRevenue;
+}
@@ -0,0 +1,16 @@
+package com.example.hack1.sales.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila de un GROUP BY: unidades vendidas por SKU o por sucursal.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnitsByKey {
+    private String key;
+    private Long units;
+}
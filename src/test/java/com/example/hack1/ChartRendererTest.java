@@ -0,0 +1,59 @@
+package com.example.hack1;
+
+import com.example.hack1.Email.ChartRenderer;
+import com.example.hack1.sales.domain.UnitsByKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Gráficos PNG de los reportes premium")
+class ChartRendererTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChartRenderer renderer = new ChartRenderer(16, meterRegistry);
+
+    @Test
+    @DisplayName("Genera un PNG válido con una barra por SKU (más 'Otros')")
+    void shouldRenderValidPng() throws Exception {
+        List<UnitsByKey> skus = IntStream.range(0, 12)
+                .mapToObj(i -> new UnitsByKey("OREO_" + i, (long) (i + 1) * 10))
+                .toList();
+
+        byte[] png = renderer.skuBarChart(skus);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertThat(image).isNotNull();
+        assertThat(image.getWidth()).isEqualTo(600);
+        // 8 filas (7 SKU + Otros) de 34 px más márgenes
+        assertThat(image.getHeight()).isEqualTo(20 + 8 * 34);
+    }
+
+    @Test
+    @DisplayName("Los mismos datos reutilizan los bytes ya generados, aunque lleguen en otro orden")
+    void shouldReuseRenderForSameData() {
+        List<UnitsByKey> branches = List.of(
+                new UnitsByKey("Miraflores", 120L), new UnitsByKey("San Isidro", 80L), new UnitsByKey("Surco", 40L));
+        List<UnitsByKey> reversed = new ArrayList<>(branches);
+        Collections.reverse(reversed);
+
+        byte[] first = renderer.branchPieChart(branches);
+        byte[] second = renderer.branchPieChart(reversed);
+        byte[] different = renderer.branchPieChart(List.of(
+                new UnitsByKey("Miraflores", 121L), new UnitsByKey("San Isidro", 80L)));
+
+        assertThat(second).isSameAs(first);
+        assertThat(different).isNotEqualTo(first);
+        assertThat(meterRegistry.get("reports.charts.cache.hits").functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("reports.charts.cache.misses").functionCounter().count()).isEqualTo(2.0);
+    }
+}
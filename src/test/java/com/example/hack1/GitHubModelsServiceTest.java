@@ -0,0 +1,213 @@
+package com.example.hack1;
+
+import com.example.hack1.Config.CircuitBreaker;
+import com.example.hack1.Config.GitHubModelsClientConfig;
+import com.example.hack1.Models.GitHubModelsService;
+import com.example.hack1.Models.SummaryCache;
+import com.example.hack1.Models.SummaryInput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GitHubModelsService contra un servidor HTTP local que simula latencia y errores
+ */
+@DisplayName("Cliente de GitHub Models: timeouts y circuit breaker")
+class GitHubModelsServiceTest {
+
+    private static final String MODEL_ANSWER = "{\"choices\":[{\"message\":{\"content\":\"Resumen del modelo\"}}]}";
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMs = 0;
+    private final Queue<String> queuedAnswers = new ConcurrentLinkedQueue<>();
+
+    private CircuitBreaker circuitBreaker;
+    private GitHubModelsService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/chat/completions", exchange -> {
+            requests.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String answer = queuedAnswers.poll();
+            byte[] body = (status != 200 ? "{\"error\":\"boom\"}" : answer != null ? answer : MODEL_ANSWER)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(status, body.length);
+                out.write(body);
+            } catch (IOException ignored) {
+                // el cliente cortó la conexión por timeout
+            }
+        });
+        server.start();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GitHubModelsClientConfig clientConfig = new GitHubModelsClientConfig();
+        circuitBreaker = new CircuitBreaker("github-models", 3, Duration.ofMillis(300), meterRegistry);
+        service = new GitHubModelsService(
+                clientConfig.gitHubModelsRestTemplate(clientConfig.gitHubModelsHttpClient(500), 5_000),
+                circuitBreaker,
+                new SummaryCache(100, 24, "", meterRegistry));
+        ReflectionTestUtils.setField(service, "token", "test");
+        ReflectionTestUtils.setField(service, "model", "gpt-4o-mini");
+        ReflectionTestUtils.setField(service, "endpoint", "http://127.0.0.1:" + server.getAddress().getPort());
+        // Plazo holgado: la primera llamada en una JVM fría calienta RestTemplate, HttpClient y Jackson
+        ReflectionTestUtils.setField(service, "deadlineMs", 10_000L);
+        ReflectionTestUtils.setField(service, "batchDeadlineMs", 2_000L);
+        ReflectionTestUtils.setField(service, "batchTokenBudget", 4_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Devuelve la respuesta del modelo cuando el endpoint responde a tiempo")
+    void shouldReturnModelAnswer() {
+        assertThat(summarize(1)).isEqualTo("Resumen del modelo");
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Un endpoint lento no bloquea más allá del plazo por resumen")
+    void shouldRespectDeadline() {
+        delayMs = 3_000;
+        ReflectionTestUtils.setField(service, "deadlineMs", 400L);
+
+        long start = System.nanoTime();
+        String summary = summarize(1);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(summary).contains("OREO_CLASSIC").isNotEqualTo("Resumen del modelo");
+        assertThat(elapsedMs).isLessThan(2_000);
+    }
+
+    @Test
+    @DisplayName("Tras fallos consecutivos el circuito se abre y ya no se llama al endpoint")
+    void shouldOpenCircuitAfterConsecutiveFailures() {
+        status = 500;
+        for (int i = 0; i < 3; i++) {
+            summarize(i);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        String summary = summarize(99);
+
+        assertThat(summary).contains("OREO_CLASSIC");
+        assertThat(requests.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Vencido el tiempo abierto, una llamada de prueba exitosa cierra el circuito")
+    void shouldCloseCircuitAfterSuccessfulProbe() throws InterruptedException {
+        status = 500;
+        for (int i = 0; i < 3; i++) {
+            summarize(i);
+        }
+        status = 200;
+        Thread.sleep(350);
+
+        assertThat(summarize(50)).isEqualTo("Resumen del modelo");
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(requests.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Si la llamada de prueba falla el circuito vuelve a abrirse")
+    void shouldReopenCircuitWhenProbeFails() throws InterruptedException {
+        status = 500;
+        for (int i = 0; i < 3; i++) {
+            summarize(i);
+        }
+        Thread.sleep(350);
+
+        summarize(50);
+        summarize(51);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(requests.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Varias sucursales se resumen en una sola llamada y cada resumen vuelve a su entrada")
+    void shouldSummarizeBranchesInSingleCall() throws Exception {
+        queuedAnswers.add(chatAnswer("```json\n{\"summaries\":[" +
+                "{\"id\":\"2\",\"summary\":\"Resumen San Isidro\"}," +
+                "{\"id\":\"1\",\"summary\":\"Resumen Miraflores\"}," +
+                "{\"id\":\"3\",\"summary\":\"Resumen Surco\"}]}\n```"));
+
+        List<String> summaries = service.generateSummaries(List.of(
+                input("Miraflores"), input("San Isidro"), input("Surco")));
+
+        assertThat(summaries).containsExactly("Resumen Miraflores", "Resumen San Isidro", "Resumen Surco");
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Las entradas que faltan en la respuesta del lote se piden por separado")
+    void shouldFallBackToSingleCallForMissingEntries() throws Exception {
+        queuedAnswers.add(chatAnswer("{\"summaries\":[{\"id\":\"1\",\"summary\":\"Resumen Miraflores\"}]}"));
+
+        List<String> summaries = service.generateSummaries(List.of(input("Miraflores"), input("Surco")));
+
+        assertThat(summaries).containsExactly("Resumen Miraflores", "Resumen del modelo");
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("El presupuesto de tokens reparte las sucursales en varios lotes")
+    void shouldSplitBatchesByTokenBudget() throws Exception {
+        ReflectionTestUtils.setField(service, "batchTokenBudget", 600);
+        queuedAnswers.add(chatAnswer("{\"summaries\":[{\"id\":\"1\",\"summary\":\"A\"},{\"id\":\"2\",\"summary\":\"B\"}]}"));
+        queuedAnswers.add(chatAnswer("{\"summaries\":[{\"id\":\"1\",\"summary\":\"C\"},{\"id\":\"2\",\"summary\":\"D\"}]}"));
+
+        List<String> summaries = service.generateSummaries(List.of(
+                input("Miraflores"), input("San Isidro"), input("Surco"), input("Barranco")));
+
+        assertThat(summaries).containsExactly("A", "B", "C", "D");
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    private static SummaryInput input(String branch) {
+        return new SummaryInput(30, 62.20, "OREO_CLASSIC", branch);
+    }
+
+    private static String chatAnswer(String content) throws Exception {
+        return new ObjectMapper().writeValueAsString(
+                Map.of("choices", List.of(Map.of("message", Map.of("content", content)))));
+    }
+
+    private String summarize(int totalUnits) {
+        return service.generateSummary(totalUnits, 62.20, "OREO_CLASSIC", "Miraflores");
+    }
+}
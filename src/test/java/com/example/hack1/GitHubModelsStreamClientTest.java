@@ -0,0 +1,160 @@
+package com.example.hack1;
+
+import com.example.hack1.Config.CircuitBreaker;
+import com.example.hack1.Config.GitHubModelsClientConfig;
+import com.example.hack1.Config.ReportConcurrencyLimits;
+import com.example.hack1.Models.GitHubModelsService;
+import com.example.hack1.Models.GitHubModelsStreamClient;
+import com.example.hack1.Models.SummaryCache;
+import com.example.hack1.Models.SummaryInput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Resumen en streaming desde GitHub Models")
+class GitHubModelsStreamClientTest {
+
+    private static final SummaryInput INPUT = new SummaryInput(30, 62.20, "OREO_CLASSIC", "Miraflores");
+
+    private HttpServer server;
+    private volatile int status = 200;
+    private final CountDownLatch firstChunkSeen = new CountDownLatch(1);
+
+    private GitHubModelsStreamClient streamClient;
+    private CircuitBreaker circuitBreaker;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/chat/completions", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(status, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                if (status != 200) {
+                    return;
+                }
+                writeEvent(out, "{\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}");
+                writeEvent(out, "{\"choices\":[{\"delta\":{\"content\":\"Ventas \"}}]}");
+                // El resto solo se envía cuando el cliente ya recibió el primer fragmento
+                firstChunkSeen.await(5, TimeUnit.SECONDS);
+                writeEvent(out, "{\"choices\":[{\"delta\":{\"content\":\"en alza\"}}]}");
+                writeEvent(out, "[DONE]");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        GitHubModelsClientConfig clientConfig = new GitHubModelsClientConfig();
+        HttpClient httpClient = clientConfig.gitHubModelsHttpClient(500);
+        circuitBreaker = new CircuitBreaker("github-models", 3, Duration.ofSeconds(30), meterRegistry);
+        GitHubModelsService gitHubModelsService = new GitHubModelsService(
+                clientConfig.gitHubModelsRestTemplate(httpClient, 5_000),
+                circuitBreaker,
+                new SummaryCache(100, 24, "", meterRegistry));
+        ReflectionTestUtils.setField(gitHubModelsService, "model", "gpt-4o-mini");
+
+        streamClient = new GitHubModelsStreamClient(httpClient, circuitBreaker, gitHubModelsService, new ObjectMapper(),
+                new ReportConcurrencyLimits(1, 1, meterRegistry));
+        ReflectionTestUtils.setField(streamClient, "token", "test");
+        ReflectionTestUtils.setField(streamClient, "model", "gpt-4o-mini");
+        ReflectionTestUtils.setField(streamClient, "endpoint", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(streamClient, "readTimeoutMs", 5_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Cada fragmento llega al consumidor antes de que el modelo termine de escribir")
+    void shouldDeliverChunksAsTheyArrive() throws Exception {
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        streamClient.streamSummary(INPUT, chunk -> {
+            chunks.add(chunk);
+            firstChunkSeen.countDown();
+        });
+
+        assertThat(chunks).containsExactly("Ventas ", "en alza");
+    }
+
+    @Test
+    @DisplayName("La llamada al modelo ocupa un permiso de reports.limits.llm mientras dura el stream")
+    void shouldHoldLlmPermitWhileStreaming() throws Exception {
+        List<Double> inUseDuringStream = new CopyOnWriteArrayList<>();
+
+        streamClient.streamSummary(INPUT, chunk -> {
+            inUseDuringStream.add(llmPermitsInUse());
+            firstChunkSeen.countDown();
+        });
+
+        assertThat(inUseDuringStream).containsOnly(1.0);
+        assertThat(llmPermitsInUse()).isZero();
+    }
+
+    private double llmPermitsInUse() {
+        return meterRegistry.get("reports.limiter.in.use").tag("resource", "llm").gauge().value();
+    }
+
+    @Test
+    @DisplayName("Si el endpoint falla se entrega el resumen de fallback completo")
+    void shouldFallBackWhenEndpointFails() throws Exception {
+        status = 500;
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        streamClient.streamSummary(INPUT, chunks::add);
+
+        assertThat(chunks).hasSize(1);
+        assertThat(chunks.get(0)).contains("OREO_CLASSIC").contains("Miraflores");
+    }
+
+    @Test
+    @DisplayName("Un error inesperado en la llamada de prueba no deja el circuito semiabierto para siempre")
+    void shouldReleaseHalfOpenProbeOnUnexpectedError() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        ReflectionTestUtils.setField(circuitBreaker, "openedAt", Instant.now().minusSeconds(60));
+        // URI inválida: buildRequest lanza IllegalArgumentException en plena llamada de prueba
+        ReflectionTestUtils.setField(streamClient, "endpoint", "http://host invalido");
+
+        assertThatThrownBy(() -> streamClient.streamSummary(INPUT, chunk -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        assertThat(llmPermitsInUse()).isZero();
+    }
+
+    private static void writeEvent(OutputStream out, String payload) throws IOException {
+        out.write(("data: " + payload + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
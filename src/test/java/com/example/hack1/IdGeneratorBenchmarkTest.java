@@ -0,0 +1,98 @@
+package com.example.hack1;
+
+import com.example.hack1.Id.UlidIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara el throughput de insert y el tamaño del índice PK entre los ids aleatorios
+ * anteriores (s_NN + 16 hex de un UUID) y los ULID ordenables por tiempo.
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=IdGeneratorBenchmarkTest
+ */
+@Tag("benchmark")
+@Testcontainers
+@DisplayName("Benchmark de claves primarias")
+class IdGeneratorBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int BATCH = 1_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    @DisplayName("ULID debe insertar más rápido y dejar un índice más chico que los ids aleatorios")
+    void compareLegacyAndUlidIds() throws Exception {
+        UlidIdGenerator ulid = new UlidIdGenerator();
+
+        try (Connection connection = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())) {
+            Result legacy = insertRows(connection, "ids_legacy", IdGeneratorBenchmarkTest::legacyId);
+            Result ordered = insertRows(connection, "ids_ulid", () -> ulid.nextId("s_"));
+
+            assertThat(ordered.indexBytes())
+                    .as("ulid: %,.0f filas/s, índice PK %,d KB; legacy: %,.0f filas/s, índice PK %,d KB",
+                            ordered.rowsPerSecond(), ordered.indexBytes() / 1024,
+                            legacy.rowsPerSecond(), legacy.indexBytes() / 1024)
+                    .isLessThan(legacy.indexBytes());
+        }
+    }
+
+    private Result insertRows(Connection connection, String table, Supplier<String> ids) throws Exception {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE " + table + " (id VARCHAR(50) PRIMARY KEY, units INT NOT NULL)");
+        }
+
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, units) VALUES (?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                insert.setString(1, ids.get());
+                insert.setInt(2, i % 12);
+                insert.addBatch();
+                if (i % BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        connection.setAutoCommit(true);
+
+        try (Statement query = connection.createStatement();
+             ResultSet rs = query.executeQuery("SELECT pg_relation_size('" + table + "_pkey')")) {
+            rs.next();
+            return new Result(ROWS / seconds, rs.getLong(1));
+        }
+    }
+
+    /**
+     * Formato anterior de Sales.onCreate / User.generateId
+     */
+    private static String legacyId() {
+        long timestamp = System.currentTimeMillis() % 100;
+        String randomPart = UUID.randomUUID().toString()
+                .replace("-", "")
+                .toUpperCase()
+                .substring(0, 16);
+        return String.format("s_%02d%s", timestamp, randomPart);
+    }
+
+    private record Result(double rowsPerSecond, long indexBytes) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.hack1;
+
+import com.example.hack1.Security.AuthenticatedUser;
+import com.example.hack1.Security.JwtService;
+import com.example.hack1.Security.TokenRevocationService;
+import com.example.hack1.Security.VerifiedToken;
+import com.example.hack1.Security.VerifiedTokenCache;
+import com.example.hack1.User.Repository.TokenRevocationRepository;
+import com.example.hack1.User.domain.Rol;
+import com.example.hack1.User.domain.TokenRevocation;
+import com.example.hack1.User.domain.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("JWT sin estado y revocación")
+class JwtServiceTest {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQ=";
+
+    private JwtService jwtService;
+    private VerifiedTokenCache tokenCache;
+    private TokenRevocationService revocationService;
+    private TokenRevocationRepository revocationRepository;
+
+    @BeforeEach
+    void setUp() {
+        tokenCache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+        jwtService = new JwtService(tokenCache);
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+
+        revocationRepository = mock(TokenRevocationRepository.class);
+        revocationService = new TokenRevocationService(revocationRepository);
+        ReflectionTestUtils.setField(revocationService, "jwtExpiration", 3_600_000L);
+    }
+
+    @Test
+    @DisplayName("El principal se reconstruye solo con los claims del token")
+    void shouldRebuildPrincipalFromClaims() {
+        User user = User.builder()
+                .id("u_01JBRANCHUSER0000000000000")
+                .username("miraflores.user")
+                .email("miraflores@oreo.com")
+                .role(Rol.BRANCH)
+                .branch("Miraflores")
+                .build();
+
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(user));
+        AuthenticatedUser principal = jwtService.parseAuthenticatedUser(claims);
+
+        assertThat(principal.getId()).isEqualTo(user.getId());
+        assertThat(principal.getName()).isEqualTo("miraflores@oreo.com");
+        assertThat(principal.getUsername()).isEqualTo("miraflores.user");
+        assertThat(principal.getRole()).isEqualTo(Rol.BRANCH);
+        assertThat(principal.getBranch()).isEqualTo("Miraflores");
+        assertThat(principal.isCentral()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Un token anterior sin claims de usuario se rechaza")
+    void shouldRejectLegacyTokenWithoutUserClaims() {
+        String legacy = Jwts.builder()
+                .subject("central@oreo.com")
+                .claim("rol", "CENTRAL")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        Claims claims = jwtService.extractAllClaims(legacy);
+
+        assertThatThrownBy(() -> jwtService.parseAuthenticatedUser(claims))
+                .isInstanceOf(MalformedJwtException.class);
+    }
+
+    @Test
+    @DisplayName("Revocar a un usuario invalida solo los tokens emitidos antes")
+    void shouldRevokeTokensIssuedBeforeRevocation() {
+        Instant issuedBefore = Instant.now().minusSeconds(60);
+
+        assertThat(revocationService.isRevoked("u_1", issuedBefore)).isFalse();
+
+        revocationService.revokeUser("u_1");
+
+        assertThat(revocationService.isRevoked("u_1", issuedBefore)).isTrue();
+        assertThat(revocationService.isRevoked("u_1", Instant.now().plusSeconds(60))).isFalse();
+        assertThat(revocationService.isRevoked("u_2", issuedBefore)).isFalse();
+        verify(revocationRepository).save(any(TokenRevocation.class));
+    }
+
+    @Test
+    @DisplayName("Una revocación hecha en otro nodo se aplica tras releer la tabla")
+    void shouldApplyRevocationsFromOtherNodes() {
+        Instant issuedBefore = Instant.now().minusSeconds(60);
+        when(revocationRepository.findByRevokedAtAfter(any()))
+                .thenReturn(List.of(new TokenRevocation("u_3", Instant.now())));
+
+        assertThat(revocationService.isRevoked("u_3", issuedBefore)).isFalse();
+
+        revocationService.refresh();
+
+        assertThat(revocationService.isRevoked("u_3", issuedBefore)).isTrue();
+        verify(revocationRepository).deleteExpired(any());
+    }
+
+    @Test
+    @DisplayName("Un token repetido se sirve desde la caché sin volver a verificarlo")
+    void shouldServeRepeatedTokenFromCache() {
+        User user = User.builder()
+                .id("u_01JCENTRALUSER000000000000")
+                .username("central.user")
+                .email("central@oreo.com")
+                .role(Rol.CENTRAL)
+                .build();
+        String token = jwtService.generateToken(user);
+
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getUser().isCentral()).isTrue();
+        assertThat(tokenCache.size()).isEqualTo(1);
+        assertThat(tokenCache.hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("La caché expulsa el token menos usado al superar su capacidad")
+    void shouldEvictLeastRecentlyUsedToken() {
+        VerifiedTokenCache small = new VerifiedTokenCache(2, new SimpleMeterRegistry());
+        VerifiedToken verified = new VerifiedToken(null, Instant.now(), Instant.now().plusSeconds(60));
+
+        small.put("a", verified);
+        small.put("b", verified);
+        small.get("a");
+        small.put("c", verified);
+
+        assertThat(small.get("a")).isNotNull();
+        assertThat(small.get("b")).isNull();
+        assertThat(small.size()).isEqualTo(2);
+    }
+}
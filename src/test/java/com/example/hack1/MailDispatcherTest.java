@@ -0,0 +1,174 @@
+package com.example.hack1;
+
+import com.example.hack1.Email.MailDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Despacho de correos en lotes")
+class MailDispatcherTest {
+
+    private SmtpStandIn smtp;
+    private MailDispatcher dispatcher;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new SmtpStandIn();
+    }
+
+    private void startDispatcher(int connections) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.getPort());
+        dispatcher = new MailDispatcher(mailSender, connections, 10, 100, 1_000, 3, 10, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        dispatcher.destroy();
+        smtp.close();
+    }
+
+    @Test
+    @DisplayName("Cuarenta correos salen en lotes por pocas conexiones SMTP")
+    void shouldReuseConnectionsAcrossBatch() throws Exception {
+        startDispatcher(2);
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            results.add(dispatcher.submit(message("cliente" + i + "@oreo.com")));
+        }
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(smtp.messages.get()).isEqualTo(40);
+        // 40 correos en lotes de 10: como máximo una conexión por lote
+        assertThat(smtp.connections.get()).isLessThanOrEqualTo(4);
+        assertThat(meterRegistry.counter("mail.dispatch.sent").count()).isEqualTo(40.0);
+    }
+
+    @Test
+    @DisplayName("Solo se reintentan los correos del lote que fallaron")
+    void shouldRetryOnlyFailedMessages() throws Exception {
+        startDispatcher(1);
+        smtp.failOnce.add("b@oreo.com");
+
+        List<CompletableFuture<Void>> results = List.of(
+                dispatcher.submit(message("a@oreo.com")),
+                dispatcher.submit(message("b@oreo.com")),
+                dispatcher.submit(message("c@oreo.com")));
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(smtp.messages.get()).isEqualTo(3);
+        assertThat(smtp.connections.get()).isEqualTo(2);
+        assertThat(meterRegistry.counter("mail.dispatch.retries").count()).isEqualTo(1.0);
+    }
+
+    private MimeMessage message(String to) throws Exception {
+        MimeMessage message = dispatcher.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom("noreply@oreo.com");
+        helper.setTo(to);
+        helper.setSubject("Resumen semanal");
+        helper.setText("Contenido del reporte");
+        return message;
+    }
+
+    /**
+     * Servidor SMTP mínimo en proceso: acepta todo, cuenta conexiones y mensajes, y
+     * responde 451 una única vez a los destinatarios de failOnce
+     */
+    private static class SmtpStandIn implements AutoCloseable {
+
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger messages = new AtomicInteger();
+        final Set<String> failOnce = ConcurrentHashMap.newKeySet();
+        private final ServerSocket server;
+
+        SmtpStandIn() throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread.ofVirtual().start(() -> {
+                while (!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        connections.incrementAndGet();
+                        Thread.ofVirtual().start(() -> handle(socket));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        int getPort() {
+            return server.getLocalPort();
+        }
+
+        private void handle(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("EHLO")) {
+                        reply(out, "250-localhost");
+                        reply(out, "250 8BITMIME");
+                    } else if (command.startsWith("RCPT TO")) {
+                        String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                        reply(out, failOnce.remove(address) ? "451 4.3.0 Intente más tarde" : "250 OK");
+                    } else if (command.equals("DATA")) {
+                        reply(out, "354 Fin con <CRLF>.<CRLF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // cuerpo del mensaje
+                        }
+                        messages.incrementAndGet();
+                        reply(out, "250 OK");
+                    } else if (command.equals("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException ignored) {
+                // conexión cerrada por el cliente
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
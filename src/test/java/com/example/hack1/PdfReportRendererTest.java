@@ -0,0 +1,203 @@
+package com.example.hack1;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.Email.ChartRenderer;
+import com.example.hack1.Email.PdfReportRenderer;
+import com.example.hack1.sales.domain.SalesAggregates;
+import com.example.hack1.sales.domain.UnitsByKey;
+import com.lowagie.text.pdf.PRStream;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfObject;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PDF del reporte premium generado por streaming")
+class PdfReportRendererTest {
+
+    private final PdfReportRenderer renderer = new PdfReportRenderer();
+    private final ChartRenderer charts = new ChartRenderer(16, new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Genera un PDF con xref consistente, gráficos incrustados y varias páginas si hace falta")
+    void shouldWriteConsistentPdf() throws Exception {
+        SalesAggregates aggregates = aggregates("🍪 " + "Las ventas (de Oreo) crecieron en todas las sucursales. ".repeat(150));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.render(aggregates, event("req_PDF"), skuChart(), branchChart(), out);
+        byte[] pdf = out.toByteArray();
+
+        assertThat(new String(pdf, 0, 8, StandardCharsets.ISO_8859_1)).isEqualTo("%PDF-1.4");
+
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            // Si la tabla xref no coincidiera con los offsets, el lector tendría que reconstruirla
+            assertThat(reader.isRebuilt()).isFalse();
+            assertThat(reader.getNumberOfPages()).isGreaterThan(1);
+            assertThat(imageCount(reader)).isEqualTo(3);  // logo + 2 gráficos
+
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            assertThat(extractor.getTextFromPage(1)).contains("Producto más vendido: OREO_CLASSIC");
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                text.append(extractor.getTextFromPage(page));
+            }
+            // El emoji no existe en WinAnsi y se descarta
+            assertThat(text.toString()).contains("Las ventas (de Oreo)").doesNotContain("🍪");
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static int imageCount(PdfReader reader) {
+        int images = 0;
+        for (int i = 1; i < reader.getXrefSize(); i++) {
+            PdfObject object = reader.getPdfObject(i);
+            if (object != null && object.isStream()
+                    && PdfName.IMAGE.equals(((PRStream) object).get(PdfName.SUBTYPE))) {
+                images++;
+            }
+        }
+        return images;
+    }
+
+    @Test
+    @DisplayName("500 reportes en paralelo: la memoria retenida por reporte en vuelo se mantiene acotada")
+    void shouldKeepMemoryPerReportBounded() throws Exception {
+        int reports = 500;
+        SalesAggregates aggregates = aggregates("Las ventas crecieron en todas las sucursales. ".repeat(200));
+        byte[] skuChart = skuChart();
+        byte[] branchChart = branchChart();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        // Todos los reportes se detienen a mitad del documento, al escribir su primera página
+        CountDownLatch midDocument = new CountDownLatch(reports);
+        CountDownLatch release = new CountDownLatch(1);
+
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+
+        List<Future<Path>> files = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < reports; i++) {
+                String requestId = "req_" + i;
+                files.add(executor.submit(() -> {
+                    Path file = Files.createTempFile("pdf-test-", ".pdf");
+                    try (OutputStream out = new PausingOutputStream(Files.newOutputStream(file), midDocument, release)) {
+                        renderer.render(aggregates, event(requestId), skuChart, branchChart, out);
+                    }
+                    return file;
+                }));
+            }
+
+            assertThat(midDocument.await(30, TimeUnit.SECONDS)).isTrue();
+            System.gc();
+            long perReport = (memory.getHeapMemoryUsage().getUsed() - baseline) / reports;
+            release.countDown();
+
+            // Página en curso + buffers; el documento completo nunca se arma en memoria
+            assertThat(perReport)
+                    .as("memoria retenida por reporte en vuelo: ~%,d bytes", perReport)
+                    .isLessThan(256 * 1024);
+
+            for (Future<Path> future : files) {
+                Path file = future.get(30, TimeUnit.SECONDS);
+                byte[] head = Files.readAllBytes(file);
+                assertThat(new String(head, 0, 8, StandardCharsets.ISO_8859_1)).isEqualTo("%PDF-1.4");
+                Files.delete(file);
+            }
+        }
+    }
+
+    private byte[] skuChart() {
+        return charts.skuBarChart(List.of(new UnitsByKey("OREO_CLASSIC", 300L), new UnitsByKey("OREO_DOUBLE", 180L)));
+    }
+
+    private byte[] branchChart() {
+        return charts.branchPieChart(List.of(new UnitsByKey("Miraflores", 280L), new UnitsByKey("San Isidro", 200L)));
+    }
+
+    private static SalesAggregates aggregates(String summary) {
+        return new SalesAggregates(120, 480, 1_234.5, "OREO_CLASSIC", "Miraflores",
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 7), null, summary);
+    }
+
+    private static ReportRequestedEvent event(String requestId) {
+        return ReportRequestedEvent.builder()
+                .requestId(requestId).requestedBy("central").emailTo("central@oreo.com")
+                .isPremium(true).includeCharts(true).attachPdf(true)
+                .build();
+    }
+
+    /**
+     * Bloquea al escribir el primer objeto página hasta que todos los reportes lleguen ahí.
+     * PdfWriter escribe cada objeto en varios write(), así que se busca sobre los últimos bytes
+     */
+    private static final class PausingOutputStream extends OutputStream {
+        private static final Pattern PAGE = Pattern.compile("/Type\\s*/Page[^s]");
+
+        private final OutputStream out;
+        private final CountDownLatch reached;
+        private final CountDownLatch release;
+        private final StringBuilder tail = new StringBuilder();
+        private boolean paused;
+
+        PausingOutputStream(OutputStream out, CountDownLatch reached, CountDownLatch release) {
+            this.out = out;
+            this.reached = reached;
+            this.release = release;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!paused) {
+                tail.append(new String(b, off, len, StandardCharsets.ISO_8859_1));
+                if (PAGE.matcher(tail).find()) {
+                    paused = true;
+                    reached.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                } else if (tail.length() > 64) {
+                    tail.delete(0, tail.length() - 32);
+                }
+            }
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
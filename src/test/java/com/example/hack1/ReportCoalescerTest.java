@@ -0,0 +1,86 @@
+package com.example.hack1;
+
+import com.example.hack1.report.Service.ReportCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Coalescencia de reportes idénticos")
+class ReportCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReportCoalescer coalescer = new ReportCoalescer(meterRegistry);
+
+    @Test
+    @DisplayName("Reportes concurrentes con la misma clave comparten un único cálculo")
+    void shouldShareSingleComputationForSameKey() throws Exception {
+        String key = ReportCoalescer.keyOf(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 7), "Miraflores");
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> coalescer.coalesce(key, () -> {
+                computations.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "resumen";
+            })));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            for (int i = 0; i < 9; i++) {
+                results.add(pool.submit(() -> coalescer.coalesce(key, () -> {
+                    computations.incrementAndGet();
+                    return "otro";
+                })));
+            }
+            while (meterRegistry.counter("reports.coalesce.hits").count() < 9) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("resumen");
+            }
+        }
+
+        assertThat(computations.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("reports.coalesce.leaders").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("reports.coalesce.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Un error del cálculo no queda guardado: el siguiente reporte vuelve a calcular")
+    void shouldNotRetainFailures() {
+        String key = ReportCoalescer.keyOf(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 7), null);
+
+        assertThatThrownBy(() -> coalescer.coalesce(key, () -> {
+            throw new IllegalStateException("BD caída");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(coalescer.coalesce(key, () -> "ok")).isEqualTo("ok");
+        assertThat(meterRegistry.counter("reports.coalesce.leaders").count()).isEqualTo(2.0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.hack1;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.Email.ReportEmailRenderer;
+import com.example.hack1.sales.domain.SalesAggregates;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Plantillas de los correos de reporte")
+class ReportEmailRendererTest {
+
+    private final ReportEmailRenderer renderer = new ReportEmailRenderer();
+
+    private final ReportRequestedEvent event = ReportRequestedEvent.builder()
+            .requestId("req_1A2B3C4D").requestedBy("central").emailTo("central@oreo.com")
+            .build();
+
+    @Test
+    @DisplayName("El HTML premium escapa SKU, sucursal y resumen")
+    void shouldEscapeValuesInPremiumHtml() {
+        SalesAggregates aggregates = new SalesAggregates(3, 10, 25.5, "<script>alert(1)</script>", "Lima & Callao",
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 7), "Lima & Callao", "Crecimiento <b>fuerte</b>");
+
+        String html = renderer.renderPremium(aggregates, event, null, null);
+
+        assertThat(html)
+                .doesNotContain("<script>")
+                .doesNotContain("<b>fuerte</b>")
+                .contains("Lima &amp; Callao")
+                .contains("Crecimiento &lt;b&gt;fuerte&lt;/b&gt;")
+                .contains("$" + String.format("%.2f", 25.5))
+                .contains("ID de solicitud: req_1A2B3C4D")
+                .doesNotContain("Visualizaciones");
+    }
+
+    @Test
+    @DisplayName("Los gráficos solo aparecen cuando se pasan")
+    void shouldIncludeChartsWhenProvided() {
+        SalesAggregates aggregates = new SalesAggregates(3, 10, 25.5, "OREO_CLASSIC", "Miraflores",
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 7), null, "Resumen");
+
+        String html = renderer.renderPremium(aggregates, event, "cid:sku-chart", "cid:branch-chart");
+
+        assertThat(html).contains("src=\"cid:sku-chart\"").contains("src=\"cid:branch-chart\"");
+    }
+
+    @Test
+    @DisplayName("El texto plano coincide con el formato anterior")
+    void shouldRenderSamePlainTextAsBefore() {
+        SalesAggregates aggregates = new SalesAggregates(1_200, 15_300, 45_678.9, "OREO_DOUBLE", "Miraflores",
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 7), null, "Semana récord en Miraflores.");
+
+        assertThat(renderer.renderPlain(aggregates, event).strip())
+                .isEqualTo(legacyPlainText(aggregates, event).strip());
+    }
+
+    /**
+     * Formato que tenía WeeklySummaryProcessor antes de usar la plantilla
+     */
+    private static String legacyPlainText(SalesAggregates aggregates, ReportRequestedEvent event) {
+        return String.format("""
+            🏢 RESUMEN SEMANAL DE VENTAS - OREO
+            ═══════════════════════════════════════════════
+            
+            📅 Período: %s al %s
+            🏪 Sucursal: %s
+            
+            📊 MÉTRICAS CLAVE
+            ═══════════════════════════════════════════════
+            • Total de ventas: %d transacciones
+            • Unidades vendidas: %,d unidades
+            • Ingresos totales: $%,.2f
+            • Producto más vendido: %s
+            • Sucursal líder: %s
+            
+            🤖 ANÁLISIS GENERADO POR IA
+            ═══════════════════════════════════════════════
+            %s
+            
+            ═══════════════════════════════════════════════
+            Solicitado por: %s
+            ID de solicitud: %s
+            
+            Este es un correo automático. Por favor no responder.
+            """,
+                aggregates.getFrom(),
+                aggregates.getTo(),
+                aggregates.getBranch() != null ? aggregates.getBranch() : "Todas",
+                aggregates.getTotalSales(),
+                aggregates.getTotalUnits(),
+                aggregates.getTotalRevenue(),
+                aggregates.getTopSku(),
+                aggregates.getTopBranch(),
+                aggregates.getSummary(),
+                event.getRequestedBy(),
+                event.getRequestId()
+        );
+    }
+}
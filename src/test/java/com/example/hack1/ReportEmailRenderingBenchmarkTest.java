@@ -0,0 +1,170 @@
+package com.example.hack1;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.Email.ReportEmailRenderer;
+import com.example.hack1.sales.domain.SalesAggregates;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Costo de armar el HTML del reporte premium: StringBuilder anterior
+ * (EmailService.buildPremiumHtmlContent) vs plantilla Thymeleaf cacheada.
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=ReportEmailRenderingBenchmarkTest
+ */
+@Tag("benchmark")
+@DisplayName("Benchmark de renderizado del email premium")
+class ReportEmailRenderingBenchmarkTest {
+
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 50_000;
+    private static final String SKU_CHART = "https://quickchart.io/chart?c=sku";
+    private static final String BRANCH_CHART = "https://quickchart.io/chart?c=branch";
+
+    @Test
+    @DisplayName("Compara renders por segundo del builder anterior y de la plantilla")
+    void compareBuilderAndTemplate() {
+        SalesAggregates aggregates = new SalesAggregates(120, 480, 1_234.5, "OREO_CLASSIC", "Miraflores",
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 7), "Miraflores",
+                "Las ventas crecieron un 12% respecto de la semana anterior.");
+        ReportRequestedEvent event = ReportRequestedEvent.builder()
+                .requestId("req_BENCH").requestedBy("central").emailTo("central@oreo.com")
+                .isPremium(true).includeCharts(true)
+                .build();
+        ReportEmailRenderer renderer = new ReportEmailRenderer();
+
+        double builder = rendersPerSecond(() -> legacyPremiumHtml(aggregates, event, SKU_CHART, BRANCH_CHART));
+        double template = rendersPerSecond(() -> renderer.renderPremium(aggregates, event, SKU_CHART, BRANCH_CHART));
+
+        // La plantilla escapa y evalúa expresiones, pero no debe volver a parsearse en cada correo
+        assertThat(template)
+                .as("plantilla: %,.0f renders/s (%.2fx de StringBuilder, %,.0f renders/s)",
+                        template, template / builder, builder)
+                .isGreaterThan(1_000);
+    }
+
+    private static double rendersPerSecond(Supplier<String> render) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += render.get().length();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += render.get().length();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertThat(sink).isPositive();
+        return ITERATIONS / seconds;
+    }
+
+    /**
+     * Copia del builder que reemplazó la plantilla, como línea base
+     */
+    static String legacyPremiumHtml(SalesAggregates aggregates, ReportRequestedEvent event,
+                                    String skuChart, String branchChart) {
+        StringBuilder html = new StringBuilder();
+
+        // Header con CSS
+        html.append("<!DOCTYPE html>")
+                .append("<html><head>")
+                .append("<meta charset=\"UTF-8\">")
+                .append("<style>")
+                .append("body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; margin: 0; padding: 20px; }")
+                .append(".header { background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white; padding: 30px; border-radius: 10px; text-align: center; }")
+                .append(".header h1 { margin: 0; font-size: 28px; }")
+                .append(".container { max-width: 800px; margin: 20px auto; }")
+                .append(".metric { background: #f8f9fa; border-left: 4px solid #667eea; padding: 20px; margin: 15px 0; border-radius: 5px; }")
+                .append(".metric h3 { margin: 0 0 10px 0; color: #667eea; }")
+                .append(".metric-value { font-size: 32px; font-weight: bold; color: #764ba2; }")
+                .append(".analysis { background: #fff3cd; border-left: 4px solid #ffc107; padding: 20px; margin: 20px 0; border-radius: 5px; }")
+                .append(".footer { text-align: center; color: #666; font-size: 12px; margin-top: 30px; padding-top: 20px; border-top: 1px solid #eee; }")
+                .append("table { width: 100%; border-collapse: collapse; margin: 20px 0; }")
+                .append("th, td { padding: 12px; text-align: left; border-bottom: 1px solid #ddd; }")
+                .append("th { background-color: #667eea; color: white; }")
+                .append("tr:hover { background-color: #f5f5f5; }")
+                .append("</style>")
+                .append("</head><body>");
+
+        // Contenedor principal
+        html.append("<div class=\"container\">");
+
+        // Header
+        html.append("<div class=\"header\">")
+                .append("<h1>🍪 Reporte Semanal Oreo</h1>")
+                .append("<p style=\"margin: 10px 0 0 0;\">")
+                .append(aggregates.getFrom()).append(" al ").append(aggregates.getTo())
+                .append("</p>");
+
+        if (aggregates.getBranch() != null) {
+            html.append("<p style=\"margin: 5px 0 0 0;\">🏪 ").append(aggregates.getBranch()).append("</p>");
+        }
+
+        html.append("</div>");
+
+        // Métricas principales
+        html.append("<h2 style=\"color: #667eea; margin-top: 30px;\">📊 Métricas Clave</h2>");
+
+        html.append("<div style=\"display: grid; grid-template-columns: repeat(auto-fit, minmax(200px, 1fr)); gap: 15px; margin: 20px 0;\">");
+
+        html.append("<div class=\"metric\">")
+                .append("<h3>💰 Ingresos</h3>")
+                .append("<div class=\"metric-value\">$").append(String.format("%.2f", aggregates.getTotalRevenue())).append("</div>")
+                .append("</div>");
+
+        html.append("<div class=\"metric\">")
+                .append("<h3>📦 Unidades</h3>")
+                .append("<div class=\"metric-value\">").append(aggregates.getTotalUnits()).append("</div>")
+                .append("</div>");
+
+        html.append("<div class=\"metric\">")
+                .append("<h3>🛒 Ventas</h3>")
+                .append("<div class=\"metric-value\">").append(aggregates.getTotalSales()).append("</div>")
+                .append("</div>");
+
+        html.append("</div>");
+
+        // Gráficos si están habilitados
+        if (event.isIncludeCharts()) {
+            html.append("<h2 style=\"color: #667eea; margin-top: 30px;\">📈 Visualizaciones</h2>");
+
+            // Gráfico de barras - Top SKU
+            html.append("<div style=\"margin: 20px 0;\">")
+                    .append("<h3>Top Producto Vendido</h3>")
+                    .append("<img src=\"").append(skuChart).append("\" ")
+                    .append("alt=\"Top SKU Chart\" style=\"width: 100%; max-width: 600px; border-radius: 8px;\" />")
+                    .append("</div>");
+
+            // Gráfico de pie - Distribución por sucursal si aplica
+            if (aggregates.getTopBranch() != null) {
+                html.append("<div style=\"margin: 20px 0;\">")
+                        .append("<h3>Distribución por Sucursal</h3>")
+                        .append("<img src=\"").append(branchChart).append("\" ")
+                        .append("alt=\"Branch Distribution Chart\" style=\"width: 100%; max-width: 600px; border-radius: 8px;\" />")
+                        .append("</div>");
+            }
+        }
+
+        // Análisis de IA
+        html.append("<div class=\"analysis\">")
+                .append("<h2 style=\"margin-top: 0; color: #856404;\">🤖 Análisis Generado por IA</h2>")
+                .append("<p>").append(aggregates.getSummary()).append("</p>")
+                .append("</div>");
+
+        // Footer
+        html.append("<div class=\"footer\">")
+                .append("<p>Solicitado por: ").append(event.getRequestedBy()).append("</p>")
+                .append("<p>ID de solicitud: ").append(event.getRequestId()).append("</p>")
+                .append("<p style=\"color: #999;\">Este es un correo automático. Por favor no responder.</p>")
+                .append("</div>");
+
+        html.append("</div>");
+        html.append("</body></html>");
+
+        return html.toString();
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.hack1;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.DTO.Response.DeadLetterResponseDTO;
+import com.example.hack1.DTO.Response.ReportStatusResponseDTO;
+import com.example.hack1.Security.AuthenticatedUser;
+import com.example.hack1.User.domain.Rol;
+import com.example.hack1.report.Repository.ReportDeadLetterRepository;
+import com.example.hack1.report.Repository.ReportJobRepository;
+import com.example.hack1.report.Service.ReportJobService;
+import com.example.hack1.report.Service.ReportRetryPolicies;
+import com.example.hack1.report.domain.ReportJob;
+import com.example.hack1.report.domain.ReportJobStatus;
+import com.example.hack1.sales.domain.SalesAggregates;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cola de reportes contra H2 (embebida por @DataJpaTest)
+ */
+@DataJpaTest
+@Import({ReportJobService.class, ReportRetryPolicies.class})
+@DisplayName("Cola durable de reportes")
+class ReportJobServiceTest {
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Autowired
+    private ReportDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Un trabajo reclamado por un nodo no lo puede cerrar otro")
+    void shouldClaimOnceAndCompleteOnlyFromOwnerNode() {
+        reportJobService.enqueue(event("req_A"));
+
+        List<ReportJob> claimed = reportJobService.claim("node-1", 10).claimed();
+        flushAndClear();
+
+        assertThat(claimed).extracting(ReportJob::getId).containsExactly("req_A");
+        assertThat(reportJobService.claim("node-2", 10).claimed()).isEmpty();
+
+        assertThat(reportJobService.complete("req_A", "node-2")).isFalse();
+        assertThat(reportJobService.complete("req_A", "node-1")).isTrue();
+        flushAndClear();
+
+        ReportJob job = reportJobRepository.findById("req_A").orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(ReportJobStatus.DONE);
+        assertThat(job.getAttempts()).isEqualTo(1);
+        assertThat(job.getLockedBy()).isNull();
+    }
+
+    @Test
+    @DisplayName("Un requestId repetido falla al insertar en vez de sobrescribir el trabajo existente")
+    void shouldRejectDuplicateRequestId() {
+        reportJobService.enqueue(event("req_DUP"));
+        flushAndClear();
+
+        ReportRequestedEvent other = event("req_DUP");
+        other.setEmailTo("otro@oreo.com");
+        reportJobService.enqueue(other);
+
+        assertThatThrownBy(this::flushAndClear).isInstanceOf(PersistenceException.class);
+    }
+
+    @Test
+    @DisplayName("Un lease vencido permite que otro nodo reclame el trabajo")
+    void shouldReclaimJobWithExpiredLease() {
+        reportJobService.enqueue(event("req_B"));
+        reportJobService.claim("node-1", 10);
+        flushAndClear();
+
+        ReportJob stuck = reportJobRepository.findById("req_B").orElseThrow();
+        stuck.setLeaseUntil(Instant.now().minusSeconds(1));
+        flushAndClear();
+
+        List<ReportJob> reclaimed = reportJobService.claim("node-2", 10).claimed();
+
+        assertThat(reclaimed).hasSize(1);
+        assertThat(reclaimed.get(0).getLockedBy()).isEqualTo("node-2");
+        assertThat(reclaimed.get(0).getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Un fallo no definitivo devuelve el trabajo a la cola con espera")
+    void shouldRequeueWithBackoffUntilAttemptsAreExhausted() {
+        reportJobService.enqueue(event("req_C"));
+        ReportJob job = reportJobService.claim("node-1", 10).claimed().get(0);
+        flushAndClear();
+
+        boolean definitive = reportJobService.fail(job, "node-1", "SMTP caído");
+        flushAndClear();
+
+        ReportJob requeued = reportJobRepository.findById("req_C").orElseThrow();
+        assertThat(definitive).isFalse();
+        assertThat(requeued.getStatus()).isEqualTo(ReportJobStatus.QUEUED);
+        assertThat(requeued.getAvailableAt()).isAfter(Instant.now());
+        assertThat(requeued.getLastError()).isEqualTo("SMTP caído");
+        assertThat(reportJobService.claim("node-1", 10).claimed()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("El estado muestra la etapa, los tiempos y los agregados antes del email")
+    void shouldExposeProgressAndResultBeforeEmail() {
+        reportJobService.enqueue(event("req_D"));
+        reportJobService.claim("node-1", 10);
+        reportJobService.recordAggregates("req_D", "node-1",
+                new SalesAggregates(3, 30, 74.85, "OREO_CLASSIC", "Miraflores",
+                        LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 7), null, null));
+        reportJobService.recordSummary("req_D", "node-1", "Semana sólida en Miraflores.");
+        flushAndClear();
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser("u_1", "central@oreo.com", "central.user", Rol.CENTRAL, null), null));
+        try {
+            ReportStatusResponseDTO status = reportJobService.getStatus("req_D");
+
+            assertThat(status.getStatus()).isEqualTo("EMAILING");
+            assertThat(status.getStageTimingsMs()).containsKeys("queued", "aggregating", "summarizing");
+            assertThat(status.getResult().getTotalUnits()).isEqualTo(30);
+            assertThat(status.getResult().getSummary()).isEqualTo("Semana sólida en Miraflores.");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    @DisplayName("Al agotar los intentos de una etapa el reporte pasa a dead letter y se puede reencolar")
+    void shouldDeadLetterAfterStageAttemptsAndRedrive() {
+        reportJobService.enqueue(event("req_E"));
+
+        boolean definitive = false;
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            makeAvailableNow("req_E");
+            ReportJob job = reportJobService.claim("node-1", 10).claimed().get(0);
+            definitive = reportJobService.fail(job, "node-1", "Base de datos no disponible");
+            flushAndClear();
+        }
+
+        assertThat(definitive).isTrue();
+        ReportJob failed = reportJobRepository.findById("req_E").orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(ReportJobStatus.FAILED);
+
+        List<DeadLetterResponseDTO> letters = reportJobService.listDeadLetters(ReportJobStatus.AGGREGATING, 0, 20).getContent();
+        assertThat(letters).extracting(DeadLetterResponseDTO::getRequestId).containsExactly("req_E");
+        assertThat(letters.get(0).getAttempts()).isEqualTo(3);
+        assertThat(letters.get(0).getLastError()).isEqualTo("Base de datos no disponible");
+
+        assertThat(reportJobService.redrive(List.of(), null, 10)).isEqualTo(1);
+        flushAndClear();
+
+        assertThat(deadLetterRepository.count()).isZero();
+        assertThat(reportJobService.claim("node-1", 10).claimed())
+                .singleElement()
+                .satisfies(job -> assertThat(job.getAttempts()).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("El lease vencido en el último intento devuelve el trabajo como dead letter para avisar")
+    void shouldReturnJobsDeadLetteredByExpiredLease() {
+        reportJobService.enqueue(event("req_F"));
+        reportJobService.claim("node-1", 10);
+        flushAndClear();
+
+        ReportJobService.ClaimedJobs lastClaim = null;
+        for (int expired = 1; expired <= 3; expired++) {
+            reportJobRepository.findById("req_F").orElseThrow().setLeaseUntil(Instant.now().minusSeconds(1));
+            flushAndClear();
+            lastClaim = reportJobService.claim("node-" + (expired + 1), 10);
+            flushAndClear();
+        }
+
+        assertThat(lastClaim.claimed()).isEmpty();
+        assertThat(lastClaim.deadLettered())
+                .singleElement()
+                .satisfies(job -> {
+                    assertThat(job.getEmailTo()).isEqualTo("gerente@oreo.com");
+                    assertThat(job.getLastError()).startsWith("Lease vencido del nodo");
+                });
+        assertThat(deadLetterRepository.existsById("req_F")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Un trabajo liberado por falta de capacidad vuelve a la cola sin consumir intentos")
+    void shouldReleaseWithoutCountingAttempt() {
+        reportJobService.enqueue(event("req_G"));
+        reportJobService.claim("node-1", 10);
+        flushAndClear();
+
+        reportJobService.release("req_G", "node-1");
+        flushAndClear();
+
+        ReportJob released = reportJobRepository.findById("req_G").orElseThrow();
+        assertThat(released.getStatus()).isEqualTo(ReportJobStatus.QUEUED);
+        assertThat(released.getAttempts()).isZero();
+        assertThat(released.getStageAttempts()).isZero();
+        assertThat(released.getLockedBy()).isNull();
+        assertThat(reportJobService.claim("node-2", 10).claimed()).singleElement()
+                .satisfies(job -> assertThat(job.getAttempts()).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("El backoff crece exponencialmente con jitter y respeta el máximo")
+    void shouldGrowBackoffWithJitterUpToCap() {
+        ReportRetryPolicies.Policy policy = new ReportRetryPolicies.Policy(
+                10, Duration.ofSeconds(10), Duration.ofSeconds(60));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(policy.backoff(1)).isBetween(Duration.ofSeconds(5), Duration.ofSeconds(10));
+            assertThat(policy.backoff(3)).isBetween(Duration.ofSeconds(20), Duration.ofSeconds(40));
+            assertThat(policy.backoff(9)).isBetween(Duration.ofSeconds(30), Duration.ofSeconds(60));
+        }
+    }
+
+    private void makeAvailableNow(String jobId) {
+        reportJobRepository.findById(jobId).orElseThrow().setAvailableAt(Instant.now().minusSeconds(1));
+        flushAndClear();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private ReportRequestedEvent event(String requestId) {
+        return ReportRequestedEvent.builder()
+                .requestId(requestId)
+                .from(LocalDate.of(2025, 11, 1))
+                .to(LocalDate.of(2025, 11, 7))
+                .emailTo("gerente@oreo.com")
+                .requestedBy("central.user")
+                .build();
+    }
+}
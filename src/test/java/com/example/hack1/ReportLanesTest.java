@@ -0,0 +1,157 @@
+package com.example.hack1;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.report.Repository.ReportJobRepository;
+import com.example.hack1.report.Service.ReportJobService;
+import com.example.hack1.report.Service.ReportLanes;
+import com.example.hack1.report.Service.ReportRetryPolicies;
+import com.example.hack1.report.domain.ReportJob;
+import com.example.hack1.report.domain.ReportJobStatus;
+import com.example.hack1.report.domain.ReportLane;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carriles premium / estándar contra H2 (embebida por @DataJpaTest)
+ */
+@DataJpaTest
+@Import({ReportLanes.class, ReportJobService.class, ReportRetryPolicies.class})
+@DisplayName("Carriles de la cola de reportes")
+class ReportLanesTest {
+
+    @Autowired
+    private ReportLanes reportLanes;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Con ambos carriles en cola los cupos se reparten por peso (3:1)")
+    void shouldSplitSlotsByWeight() {
+        Map<ReportLane, Integer> plan = reportLanes.plan(8, Map.of());
+
+        assertThat(plan).containsEntry(ReportLane.PREMIUM, 6).containsEntry(ReportLane.STANDARD, 2);
+    }
+
+    @Test
+    @DisplayName("Un carril en su tope no recibe cupos; los toma el otro")
+    void shouldRespectPerLaneCap() {
+        int premiumCap = reportLanes.maxConcurrent(ReportLane.PREMIUM);
+
+        Map<ReportLane, Integer> plan = reportLanes.plan(5, Map.of(ReportLane.PREMIUM, premiumCap));
+
+        assertThat(plan).doesNotContainKey(ReportLane.PREMIUM).containsEntry(ReportLane.STANDARD, 5);
+    }
+
+    @Test
+    @DisplayName("Reclamar un carril no toma trabajos del otro")
+    void shouldClaimOnlyFromRequestedLane() {
+        reportJobService.enqueue(event("req_TXT", false));
+        reportJobService.enqueue(event("req_premium_PDF", true));
+        flushAndClear();
+
+        assertThat(reportJobService.claim("node-1", ReportLane.PREMIUM, 10).claimed())
+                .extracting(ReportJob::getId)
+                .containsExactly("req_premium_PDF");
+        assertThat(reportJobService.claim("node-1", ReportLane.PREMIUM, 10).claimed()).isEmpty();
+        assertThat(reportJobService.claim("node-1", ReportLane.STANDARD, 10).claimed())
+                .extracting(ReportJob::getId)
+                .containsExactly("req_TXT");
+    }
+
+    @Test
+    @DisplayName("El ETA usa la profundidad del carril y el tiempo de servicio reciente")
+    void shouldEstimateFromQueueDepthAndRecentServiceTime() {
+        // Sin historial: tiempo de servicio por defecto del carril
+        reportJobService.enqueue(event("req_premium_A", true));
+        flushAndClear();
+        assertThat(reportLanes.estimateWait(ReportLane.PREMIUM)).isEqualTo(Duration.ofSeconds(75));
+
+        reportJobService.claim("node-1", ReportLane.PREMIUM, 10);
+        reportJobService.complete("req_premium_A", "node-1");
+        flushAndClear();
+        ReportJob done = reportJobRepository.findById("req_premium_A").orElseThrow();
+        done.setStartedAt(done.getFinishedAt().minusSeconds(12));
+        flushAndClear();
+
+        assertThat(reportLanes.recentServiceTime(ReportLane.PREMIUM)).isEqualTo(Duration.ofSeconds(12));
+
+        // Más pendientes que el tope del carril: una tanda extra de espera
+        int cap = reportLanes.maxConcurrent(ReportLane.PREMIUM);
+        for (int i = 0; i <= cap; i++) {
+            reportJobService.enqueue(event("req_premium_" + i, true));
+        }
+        flushAndClear();
+        assertThat(reportLanes.estimateWait(ReportLane.PREMIUM)).isEqualTo(Duration.ofSeconds(24));
+        assertThat(reportLanes.estimateWait(ReportLane.STANDARD)).isEqualTo(Duration.ofSeconds(45));
+    }
+
+    @Test
+    @DisplayName("El ETA no cuenta los reintentos en espera y reparte la cola entre los nodos vivos")
+    void shouldEstimateWithReadyJobsAndLiveNodes() {
+        int cap = reportLanes.maxConcurrent(ReportLane.PREMIUM);
+        for (int i = 0; i <= 2 * cap; i++) {
+            reportJobService.enqueue(event("req_premium_" + i, true));
+        }
+        flushAndClear();
+
+        // 2 * cap + 1 pendientes con un solo nodo: tres tandas del tiempo por defecto
+        assertThat(reportLanes.estimateWait(ReportLane.PREMIUM)).isEqualTo(Duration.ofSeconds(3 * 75));
+
+        // Dos nodos con leases vigentes atienden el doble por tanda
+        reportJobService.claim("node-1", ReportLane.PREMIUM, 1);
+        reportJobService.claim("node-2", ReportLane.PREMIUM, 1);
+        flushAndClear();
+        assertThat(reportLanes.estimateWait(ReportLane.PREMIUM)).isEqualTo(Duration.ofSeconds(2 * 75));
+
+        // Un trabajo en backoff no está delante del nuevo
+        ReportJob retrying = reportJobRepository.findAll().stream()
+                .filter(job -> job.getStatus() == ReportJobStatus.QUEUED)
+                .findFirst().orElseThrow();
+        retrying.setAvailableAt(Instant.now().plusSeconds(600));
+        flushAndClear();
+        assertThat(reportLanes.estimateWait(ReportLane.PREMIUM)).isEqualTo(Duration.ofSeconds(75));
+    }
+
+    @Test
+    @DisplayName("El tiempo estimado se muestra en segundos o minutos")
+    void shouldDescribeWait() {
+        assertThat(ReportLanes.describe(Duration.ofMillis(44_200))).isEqualTo("~45 segundos");
+        assertThat(ReportLanes.describe(Duration.ofSeconds(150))).isEqualTo("~3 minutos");
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private ReportRequestedEvent event(String requestId, boolean premium) {
+        return ReportRequestedEvent.builder()
+                .requestId(requestId)
+                .from(LocalDate.of(2025, 11, 1))
+                .to(LocalDate.of(2025, 11, 7))
+                .emailTo("gerente@oreo.com")
+                .requestedBy("central.user")
+                .isPremium(premium)
+                .includeCharts(premium)
+                .attachPdf(premium)
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.hack1;
+
+import com.example.hack1.report.Repository.ReportSnapshotRepository;
+import com.example.hack1.report.Service.ReportSnapshotService;
+import com.example.hack1.report.domain.ReportSnapshot;
+import com.example.hack1.sales.Repository.SalesDayVersionRepository;
+import com.example.hack1.sales.domain.Sales;
+import com.example.hack1.sales.domain.SalesAggregates;
+import com.example.hack1.sales.domain.UnitsByKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Snapshots de reportes de períodos cerrados")
+class ReportSnapshotServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 9, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 9, 7);
+
+    @Mock
+    private ReportSnapshotRepository snapshotRepository;
+
+    @Mock
+    private SalesDayVersionRepository dayVersionRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReportSnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReportSnapshotService(snapshotRepository, dayVersionRepository, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Un período cerrado se sirve desde el snapshot de su versión de datos")
+    void shouldServeClosedPeriodFromSnapshot() {
+        when(dayVersionRepository.sumVersionsByBranch("Miraflores", FROM, TO)).thenReturn(12L);
+        ReportSnapshot stored = ReportSnapshot.builder()
+                .fromDate(FROM).toDate(TO).branchKey("Miraflores").dataVersion(12L)
+                .totalSales(3).totalUnits(40).totalRevenue(80.0)
+                .topSku("OREO_CLASSIC").topBranch("Miraflores").summary("Semana estable")
+                .unitsBySku(List.of(new UnitsByKey("OREO_CLASSIC", 40L)))
+                .build();
+        when(snapshotRepository.findByFromDateAndToDateAndBranchKeyAndDataVersion(FROM, TO, "Miraflores", 12L))
+                .thenReturn(Optional.of(stored));
+
+        ReportSnapshotService.Key key = service.keyFor(FROM, TO, "Miraflores");
+        Optional<SalesAggregates> found = service.find(key, "Miraflores");
+
+        assertThat(key).isEqualTo(new ReportSnapshotService.Key(FROM, TO, "Miraflores", 12L));
+        assertThat(found).isPresent();
+        assertThat(found.get().getSummary()).isEqualTo("Semana estable");
+        assertThat(found.get().getUnitsBySku()).containsExactly(new UnitsByKey("OREO_CLASSIC", 40L));
+        assertThat(meterRegistry.counter("reports.snapshot.hits").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Un período que termina hoy o ayer (día de gracia) no tiene clave de snapshot")
+    void shouldNotKeyOpenPeriod() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        assertThat(service.keyFor(today.minusDays(6), today, null)).isNull();
+        assertThat(service.keyFor(today.minusDays(7), today.minusDays(1), null)).isNull();
+        verifyNoInteractions(dayVersionRepository);
+
+        assertThat(service.keyFor(today.minusDays(8), today.minusDays(2), null)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Las ventas de hoy no suben la versión ni borran snapshots")
+    void shouldNotTouchToday() {
+        Instant now = Instant.now();
+
+        service.touch(now, "Miraflores");
+        service.touchAll(List.of(Sales.builder().sku("OREO_CLASSIC").units(1).branch("Miraflores").soldAt(now).build()));
+
+        verifyNoInteractions(dayVersionRepository, snapshotRepository);
+    }
+
+    @Test
+    @DisplayName("Sin resumen no se guarda snapshot; con resumen se guarda con su clave")
+    void shouldSaveOnlyFinishedReports() {
+        ReportSnapshotService.Key key = new ReportSnapshotService.Key(FROM, TO, "*", 5L);
+        SalesAggregates pending = new SalesAggregates(3, 40, 80.0, "OREO_CLASSIC", "Miraflores",
+                FROM, TO, null, null, null, null);
+
+        service.save(key, pending);
+        verify(snapshotRepository, never()).save(any());
+
+        pending.setSummary("Semana estable");
+        service.save(key, pending);
+
+        ArgumentCaptor<ReportSnapshot> saved = ArgumentCaptor.forClass(ReportSnapshot.class);
+        verify(snapshotRepository).save(saved.capture());
+        assertThat(saved.getValue().getBranchKey()).isEqualTo("*");
+        assertThat(saved.getValue().getDataVersion()).isEqualTo(5L);
+        assertThat(saved.getValue().getSummary()).isEqualTo("Semana estable");
+    }
+
+    @Test
+    @DisplayName("Cambiar ventas sube la versión una vez por (día, sucursal) y borra los snapshots que lo cubren")
+    void shouldBumpVersionAndInvalidateCoveringSnapshots() {
+        Instant morning = Instant.parse("2025-09-03T10:00:00Z");
+        Instant evening = Instant.parse("2025-09-03T21:00:00Z");
+        List<Sales> batch = List.of(
+                Sales.builder().sku("OREO_CLASSIC").units(5).branch("Miraflores").soldAt(morning).build(),
+                Sales.builder().sku("OREO_DOUBLE").units(2).branch("Miraflores").soldAt(evening).build(),
+                Sales.builder().sku("OREO_CLASSIC").units(1).branch("San Isidro").soldAt(evening).build());
+
+        service.touchAll(batch);
+
+        LocalDate day = LocalDate.of(2025, 9, 3);
+        verify(dayVersionRepository, times(1)).bump(day, "Miraflores");
+        verify(dayVersionRepository, times(1)).bump(day, "San Isidro");
+        verify(snapshotRepository, times(1)).deleteCovering(day, "Miraflores");
+        verify(snapshotRepository, times(1)).deleteCovering(day, "San Isidro");
+    }
+}
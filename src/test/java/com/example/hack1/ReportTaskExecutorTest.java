@@ -0,0 +1,88 @@
+package com.example.hack1;
+
+import com.example.hack1.Config.ConcurrencyLimiter;
+import com.example.hack1.Config.ReportTaskExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Ejecutor de reportes con hilos virtuales")
+class ReportTaskExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReportTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Una ráfaga de 200 reportes se acepta completa y respeta el límite del recurso")
+    void shouldAcceptBurstAndRespectResourceLimit() throws InterruptedException {
+        executor = new ReportTaskExecutor(10_000, meterRegistry);
+        ConcurrencyLimiter smtp = new ConcurrencyLimiter("smtp", 2, meterRegistry);
+
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger maxObserved = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(200);
+
+        for (int i = 0; i < 200; i++) {
+            executor.execute(() -> {
+                smtp.run(() -> {
+                    maxObserved.accumulateAndGet(current.incrementAndGet(), Math::max);
+                    sleep(5);
+                    current.decrementAndGet();
+                });
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxObserved.get()).isLessThanOrEqualTo(2);
+        assertThat(meterRegistry.get("reports.executor.rejected").counter().count()).isZero();
+        assertThat(meterRegistry.get("reports.limiter.wait").tag("resource", "smtp").timer().count()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Por encima de max-in-flight el reporte se rechaza y se cuenta")
+    void shouldRejectAboveMaxInFlight() throws InterruptedException {
+        executor = new ReportTaskExecutor(1, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.execute(() -> awaitQuietly(release));
+
+        assertThatThrownBy(() -> executor.execute(() -> { }))
+                .isInstanceOf(TaskRejectedException.class);
+        assertThat(meterRegistry.get("reports.executor.rejected").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.hack1;
+
+import com.example.hack1.DTO.Request.SaleRequestDTO;
+import com.example.hack1.DTO.Response.BatchSalesResponseDTO;
+import com.example.hack1.Security.AuthenticatedUser;
+import com.example.hack1.User.Repository.UserRepository;
+import com.example.hack1.User.domain.Rol;
+import com.example.hack1.User.domain.User;
+import com.example.hack1.sales.Service.SalesService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de la carga masiva POST /api/sales/batch contra un PostgreSQL local (Testcontainers).
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=SalesBatchBenchmarkTest
+ */
+@Tag("benchmark")
+@Testcontainers
+@ActiveProfiles("benchmark")
+@SpringBootTest
+@DisplayName("Benchmark de carga masiva de ventas")
+class SalesBatchBenchmarkTest {
+
+    private static final String BENCH_EMAIL = "bench@oreo.com";
+    private static final int REQUEST_SIZE = 5_000;
+    private static final int WARMUP_REQUESTS = 3;
+    private static final int MEASURED_REQUESTS = 20;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.findByEmail(BENCH_EMAIL)
+                .orElseGet(() -> userRepository.save(User.builder()
+                        .username("bench.central")
+                        .email(BENCH_EMAIL)
+                        .password("not-used")
+                        .role(Rol.CENTRAL)
+                        .build()));
+
+        // Mismo principal que arma JwtAuthenticationFilter a partir del token
+        AuthenticatedUser principal = new AuthenticatedUser(
+                user.getId(), user.getEmail(), user.getUsername(), user.getRole(), user.getBranch());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Debe ingerir al menos 20k ventas por segundo")
+    void batchIngestThroughput() {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            salesService.createSalesBatch(buildRequests(i));
+        }
+
+        long created = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            BatchSalesResponseDTO response = salesService.createSalesBatch(buildRequests(WARMUP_REQUESTS + i));
+            created += response.getCreated();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        double salesPerSecond = created / seconds;
+
+        assertThat(created).isEqualTo((long) REQUEST_SIZE * MEASURED_REQUESTS);
+        assertThat(salesPerSecond)
+                .as("batch ingest: %,d ventas en %.2f s -> %,.0f ventas/s", created, seconds, salesPerSecond)
+                .isGreaterThan(20_000);
+    }
+
+    private List<SaleRequestDTO> buildRequests(int seed) {
+        Instant base = Instant.parse("2025-11-01T08:00:00Z");
+        List<SaleRequestDTO> requests = new ArrayList<>(REQUEST_SIZE);
+        for (int i = 0; i < REQUEST_SIZE; i++) {
+            requests.add(new SaleRequestDTO(
+                    "OREO_SKU_" + (i % 20),
+                    1 + (i % 12),
+                    BigDecimal.valueOf(199 + (i % 100), 2),
+                    "Branch_" + ((seed + i) % 10),
+                    base.plusSeconds((long) i * 97 % (7 * 86_400)).toString()
+            ));
+        }
+        return requests;
+    }
+}
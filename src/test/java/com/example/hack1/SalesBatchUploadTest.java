@@ -0,0 +1,145 @@
+package com.example.hack1;
+
+import com.example.hack1.Config.ReportConcurrencyLimits;
+import com.example.hack1.DTO.Request.SaleRequestDTO;
+import com.example.hack1.DTO.Response.BatchSalesResponseDTO;
+import com.example.hack1.Exception.BadRequestException;
+import com.example.hack1.report.Service.ReportJobService;
+import com.example.hack1.sales.Controller.SalesController;
+import com.example.hack1.sales.Service.SalesRollupService;
+import com.example.hack1.sales.Service.SalesService;
+import com.example.hack1.sales.Service.SummaryStreamService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lectura de POST /api/sales/batch: los límites se aplican mientras se lee el cuerpo
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Carga masiva de ventas: lectura del cuerpo")
+class SalesBatchUploadTest {
+
+    private static final String SALE =
+            "{\"sku\":\"OREO_CLASSIC\",\"units\":5,\"price\":1.99,\"branch\":\"Miraflores\",\"soldAt\":\"2025-11-01T10:00:00Z\"}";
+
+    @Mock
+    private SalesService salesService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Mock
+    private ReportJobService reportJobService;
+
+    @Mock
+    private SummaryStreamService summaryStreamService;
+
+    @Mock
+    private ReportConcurrencyLimits limits;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private SalesController salesController;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(salesController, "batchMaxItems", 2);
+        ReflectionTestUtils.setField(salesController, "batchMaxBytes", 64 * 1024L);
+    }
+
+    @Test
+    @DisplayName("Una línea NDJSON mal formada llega al servicio como ítem nulo en su índice")
+    @SuppressWarnings("unchecked")
+    void shouldPassMalformedNdjsonLineAsNull() throws Exception {
+        when(salesService.createSalesBatch(anyList()))
+                .thenReturn(new BatchSalesResponseDTO());
+
+        salesController.createSalesBatchNdjson(request(SALE + "\n{no es json\n"));
+
+        ArgumentCaptor<List<SaleRequestDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(salesService).createSalesBatch(captor.capture());
+        assertThat(captor.getValue()).hasSize(2);
+        assertThat(captor.getValue().get(0).getSku()).isEqualTo("OREO_CLASSIC");
+        assertThat(captor.getValue().get(1)).isNull();
+    }
+
+    @Test
+    @DisplayName("El NDJSON se corta en la línea max-items + 1 sin leer el resto")
+    void shouldStopNdjsonAtMaxItems() {
+        // Lo que sigue a la tercera línea nunca se lee
+        String body = SALE + "\n" + SALE + "\n" + SALE + "\n" + "x".repeat(32 * 1024);
+
+        assertThatThrownBy(() -> salesController.createSalesBatchNdjson(request(body)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("El lote excede el máximo de 2 ventas");
+        verifyNoInteractions(salesService);
+    }
+
+    @Test
+    @DisplayName("El arreglo JSON se lee ítem por ítem y se corta en max-items + 1")
+    void shouldStopJsonArrayAtMaxItems() {
+        // El arreglo ni siquiera está cerrado: el corte llega antes
+        String body = "[" + SALE + "," + SALE + "," + SALE + "," + SALE;
+
+        assertThatThrownBy(() -> salesController.createSalesBatch(request(body)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("El lote excede el máximo de 2 ventas");
+        verifyNoInteractions(salesService);
+    }
+
+    @Test
+    @DisplayName("Un cuerpo que supera max-bytes se rechaza por Content-Length y, sin él, al leer")
+    void shouldRejectBodyOverMaxBytes() {
+        ReflectionTestUtils.setField(salesController, "batchMaxBytes", 100L);
+        String body = "[" + SALE + "," + SALE + "]";
+
+        assertThatThrownBy(() -> salesController.createSalesBatch(request(body)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("El lote excede el máximo de 100 bytes");
+
+        MockHttpServletRequest chunked = new MockHttpServletRequest() {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.setContent(body.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> salesController.createSalesBatch(chunked))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("El lote excede el máximo de 100 bytes");
+        verifyNoInteractions(salesService);
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
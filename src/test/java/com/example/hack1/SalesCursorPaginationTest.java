@@ -0,0 +1,108 @@
+package com.example.hack1;
+
+import com.example.hack1.DTO.Response.SaleResponseDTO;
+import com.example.hack1.Exception.BadRequestException;
+import com.example.hack1.sales.Repository.SalesRepository;
+import com.example.hack1.sales.domain.Sales;
+import com.example.hack1.sales.domain.SalesCursor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Paginación por keyset (soldAt, id) contra H2 (embebida por @DataJpaTest)
+ */
+@DataJpaTest
+@DisplayName("Paginación de ventas por cursor")
+class SalesCursorPaginationTest {
+
+    @Autowired
+    private SalesRepository salesRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("El cursor se codifica y decodifica sin perder la posición")
+    void shouldRoundTripCursor() {
+        SalesCursor cursor = SalesCursor.after("2025-11-03T10:15:30.123456Z", "s_01JC8Z6Q7R");
+
+        SalesCursor decoded = SalesCursor.decode(cursor.encode());
+
+        assertThat(decoded.getSoldAt()).isEqualTo(Instant.parse("2025-11-03T10:15:30.123456Z"));
+        assertThat(decoded.getId()).isEqualTo("s_01JC8Z6Q7R");
+        assertThat(SalesCursor.decode(null)).isSameAs(SalesCursor.START);
+        assertThat(SalesCursor.decode(" ")).isSameAs(SalesCursor.START);
+    }
+
+    @Test
+    @DisplayName("Un cursor mal formado es un 400, no un 500")
+    void shouldRejectMalformedCursor() {
+        String notBase64 = "%%%";
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2025-11-03T10:15:30Z".getBytes(StandardCharsets.UTF_8));
+        String badInstant = Base64.getUrlEncoder().encodeToString("ayer|s_1".getBytes(StandardCharsets.UTF_8));
+
+        for (String token : List.of(notBase64, noSeparator, badInstant)) {
+            assertThatThrownBy(() -> SalesCursor.decode(token))
+                    .isInstanceOf(BadRequestException.class)
+                    .hasMessage("Cursor de paginación inválido");
+        }
+    }
+
+    @Test
+    @DisplayName("Ventas con el mismo soldAt en el borde de página no se repiten ni se saltan")
+    void shouldNotDuplicateOrSkipTiesAcrossPages() {
+        Instant tie = Instant.parse("2025-11-03T12:00:00Z");
+        List<Sales> saved = new ArrayList<>();
+        saved.add(persist(tie.minusSeconds(60)));
+        for (int i = 0; i < 5; i++) {
+            saved.add(persist(tie));
+        }
+        saved.add(persist(tie.plusSeconds(60)));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> expected = saved.stream()
+                .sorted(Comparator.comparing(Sales::getSoldAt).thenComparing(Sales::getId))
+                .map(Sales::getId)
+                .toList();
+
+        List<String> walked = new ArrayList<>();
+        String token = null;
+        do {
+            SalesCursor after = SalesCursor.decode(token);
+            Slice<SaleResponseDTO> page = salesRepository.findViewsAfter(
+                    after.getSoldAt(), after.getId(), PageRequest.of(0, 2));
+            page.getContent().forEach(sale -> walked.add(sale.getId()));
+            SaleResponseDTO last = page.getContent().get(page.getContent().size() - 1);
+            token = page.hasNext() ? SalesCursor.after(last.getSoldAt(), last.getId()).encode() : null;
+        } while (token != null);
+
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+
+    private Sales persist(Instant soldAt) {
+        return entityManager.persist(Sales.builder()
+                .sku("OREO_CLASSIC")
+                .units(1)
+                .price(new BigDecimal("2.50"))
+                .branch("Miraflores")
+                .soldAt(soldAt)
+                .build());
+    }
+}
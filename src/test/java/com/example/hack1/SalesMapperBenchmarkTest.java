@@ -0,0 +1,101 @@
+package com.example.hack1;
+
+import com.example.hack1.DTO.Response.SaleResponseDTO;
+import com.example.hack1.Mapper.SalesMapper;
+import com.example.hack1.Mapper.SalesMapperImpl;
+import com.example.hack1.sales.domain.Sales;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput de mapeo de una página de listSales (size=500):
+ * ModelMapper reflexivo (configuración anterior) vs SalesMapper generado por MapStruct.
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=SalesMapperBenchmarkTest
+ */
+@Tag("benchmark")
+@DisplayName("Benchmark de mapeo Sales -> SaleResponseDTO")
+class SalesMapperBenchmarkTest {
+
+    private static final int PAGE_SIZE = 500;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 10_000;
+
+    static ModelMapper legacyModelMapper() {
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT)
+                .setSkipNullEnabled(true);
+        return modelMapper;
+    }
+
+    @Test
+    @DisplayName("MapStruct debe mapear una página de 500 ventas más rápido que ModelMapper")
+    void compareModelMapperAndMapStruct() {
+        List<Sales> page = samplePage();
+        ModelMapper modelMapper = legacyModelMapper();
+        SalesMapper salesMapper = new SalesMapperImpl();
+
+        // Ambos caminos deben producir exactamente el mismo DTO
+        assertThat(salesMapper.toResponse(page.get(0)))
+                .isEqualTo(modelMapper.map(page.get(0), SaleResponseDTO.class));
+
+        double reflective = pagesPerSecond(page, sale -> modelMapper.map(sale, SaleResponseDTO.class));
+        double generated = pagesPerSecond(page, salesMapper::toResponse);
+
+        assertThat(generated)
+                .as("MapStruct: %,.0f páginas/s (%,.0f filas/s); ModelMapper: %,.0f páginas/s (%,.0f filas/s)",
+                        generated, generated * PAGE_SIZE, reflective, reflective * PAGE_SIZE)
+                .isGreaterThan(reflective);
+    }
+
+    private double pagesPerSecond(List<Sales> page, Function<Sales, SaleResponseDTO> mapper) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += mapPage(page, mapper).size();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += mapPage(page, mapper).size();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(sink).isEqualTo((long) (WARMUP + ITERATIONS) * PAGE_SIZE);
+        return ITERATIONS / (elapsed / 1_000_000_000.0);
+    }
+
+    private List<SaleResponseDTO> mapPage(List<Sales> page, Function<Sales, SaleResponseDTO> mapper) {
+        List<SaleResponseDTO> result = new ArrayList<>(page.size());
+        for (Sales sale : page) {
+            result.add(mapper.apply(sale));
+        }
+        return result;
+    }
+
+    private List<Sales> samplePage() {
+        Instant base = Instant.parse("2025-11-01T08:00:00Z");
+        List<Sales> page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(Sales.builder()
+                    .id("s_" + i)
+                    .sku("OREO_SKU_" + (i % 20))
+                    .units(1 + (i % 12))
+                    .price(BigDecimal.valueOf(199 + (i % 100), 2))
+                    .branch("Branch_" + (i % 10))
+                    .soldAt(base.plusSeconds(i * 31L))
+                    .build());
+        }
+        return page;
+    }
+}
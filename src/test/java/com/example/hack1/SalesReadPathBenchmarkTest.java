@@ -0,0 +1,131 @@
+package com.example.hack1;
+
+import com.example.hack1.DTO.Response.SaleResponseDTO;
+import com.example.hack1.sales.Repository.SalesRepository;
+import com.example.hack1.sales.domain.Sales;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Costo por fila y asignación de memoria del listado de ventas:
+ * entidad Sales + ModelMapper (camino anterior) vs proyección JPQL directa a SaleResponseDTO.
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=SalesReadPathBenchmarkTest
+ */
+@Tag("benchmark")
+@Testcontainers
+@ActiveProfiles("benchmark")
+@SpringBootTest
+@DisplayName("Benchmark del camino de lectura de ventas")
+class SalesReadPathBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+    private static final int PAGE_SIZE = 500;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 200;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private SalesRepository salesRepository;
+
+    // El bean de ModelMapper ya no existe: se replica aquí su configuración original
+    private final ModelMapper modelMapper = SalesMapperBenchmarkTest.legacyModelMapper();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void seed() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        if (salesRepository.count() >= ROWS) {
+            return;
+        }
+        Instant base = Instant.parse("2025-11-01T08:00:00Z");
+        List<Sales> sales = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            sales.add(Sales.builder()
+                    .sku("OREO_SKU_" + (i % 20))
+                    .units(1 + (i % 12))
+                    .price(BigDecimal.valueOf(199 + (i % 100), 2))
+                    .branch("Branch_" + (i % 10))
+                    .soldAt(base.plusSeconds(i * 31L))
+                    .build());
+        }
+        salesRepository.saveAll(sales);
+    }
+
+    @Test
+    @DisplayName("La proyección debe asignar menos memoria por fila que entidad + ModelMapper")
+    void compareEntityAndProjectionReadPaths() {
+        Measurement entityPath = measure(() -> readOnly.execute(status ->
+                salesRepository.findAll(nextPage())
+                        .map(sale -> modelMapper.map(sale, SaleResponseDTO.class))));
+
+        Measurement projectionPath = measure(() -> readOnly.execute(status ->
+                salesRepository.findAllViews(nextPage())));
+
+        assertThat(projectionPath.bytesPerRow())
+                .as("proyección JPQL: %,.0f ns/fila, %,d bytes/fila; entidad + ModelMapper: %,.0f ns/fila, %,d bytes/fila",
+                        projectionPath.nanosPerRow(), projectionPath.bytesPerRow(),
+                        entityPath.nanosPerRow(), entityPath.bytesPerRow())
+                .isLessThan(entityPath.bytesPerRow());
+    }
+
+    private int page;
+
+    private PageRequest nextPage() {
+        page = (page + 1) % (ROWS / PAGE_SIZE);
+        return PageRequest.of(page, PAGE_SIZE);
+    }
+
+    private Measurement measure(Supplier<Page<SaleResponseDTO>> listPage) {
+        for (int i = 0; i < WARMUP; i++) {
+            listPage.get();
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long rows = 0;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows += listPage.get().getNumberOfElements();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        return new Measurement((double) elapsed / rows, allocated / rows);
+    }
+
+    private record Measurement(double nanosPerRow, long bytesPerRow) {
+    }
+}
@@ -1,11 +1,26 @@
 package com.example.hack1;
 
+import com.example.hack1.DTO.Request.SaleRequestDTO;
+import com.example.hack1.DTO.Response.BatchSaleResultDTO;
+import com.example.hack1.DTO.Response.BatchSalesResponseDTO;
+import com.example.hack1.Exception.BadRequestException;
+import com.example.hack1.Mapper.SalesMapper;
 import com.example.hack1.Models.GitHubModelsService;
+import com.example.hack1.Security.AuthenticatedUser;
 import com.example.hack1.User.Repository.UserRepository;
+import com.example.hack1.User.domain.Rol;
+import com.example.hack1.report.Service.ReportSnapshotService;
+import com.example.hack1.sales.Repository.SalesDailyRollupRepository;
 import com.example.hack1.sales.Repository.SalesRepository;
+import com.example.hack1.sales.Service.SalesRollupService;
 import com.example.hack1.sales.Service.SalesService;
+import com.example.hack1.sales.domain.BranchSkuTotals;
 import com.example.hack1.sales.domain.Sales;
 import com.example.hack1.sales.domain.SalesAggregates;
+import com.example.hack1.sales.domain.SalesTotals;
+import com.example.hack1.sales.domain.UnitsByKey;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,10 +28,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -25,9 +39,16 @@ import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 
@@ -42,11 +63,23 @@ class SalesServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private SalesMapper salesMapper;
 
     @Mock
     private GitHubModelsService gitHubModelsService;
 
+    @Mock
+    private SalesDailyRollupRepository salesDailyRollupRepository;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private ReportSnapshotService reportSnapshotService;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private SalesService salesService;
 
@@ -61,6 +94,11 @@ class SalesServiceTest {
         toDate = LocalDate.of(2025, 11, 7);
         fromInstant = fromDate.atStartOfDay(ZoneOffset.UTC).toInstant();
         toInstant = toDate.atTime(LocalTime.MAX).atZone(ZoneOffset.UTC).toInstant();
+
+        ReflectionTestUtils.setField(salesService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(salesService, "batchSize", 500);
+        ReflectionTestUtils.setField(salesService, "batchMaxItems", 50_000);
     }
 
     /**
@@ -76,10 +114,7 @@ class SalesServiceTest {
                 createSale("s_003", "OREO_CLASSIC", 15, 1.99, "Miraflores", fromInstant.plusSeconds(7200))
         );
 
-        Page<Sales> mockPage = new PageImpl<>(mockSales);
-
-        when(salesRepository.findBySoldAtBetween(any(Instant.class), any(Instant.class), any(Pageable.class)))
-                .thenReturn(mockPage);
+        stubChainWideAggregates(mockSales);
 
         when(gitHubModelsService.generateSummary(eq(30), eq(62.20), eq("OREO_CLASSIC"), eq("Miraflores")))
                 .thenReturn("Resumen generado por IA");
@@ -102,10 +137,8 @@ class SalesServiceTest {
     @Test
     @DisplayName("Debe retornar valores por defecto cuando no hay ventas")
     void shouldReturnDefaultValuesWhenNoSales() {
-        Page<Sales> emptyPage = new PageImpl<>(new ArrayList<>());
-
-        when(salesRepository.findBySoldAtBetween(any(Instant.class), any(Instant.class), any(Pageable.class)))
-                .thenReturn(emptyPage);
+        when(salesRepository.sumTotals(any(Instant.class), any(Instant.class)))
+                .thenReturn(new SalesTotals(0L, null, null));
 
         SalesAggregates result = salesService.calculateAggregatesForReport(fromDate, toDate, null);
 
@@ -130,11 +163,10 @@ class SalesServiceTest {
                 createSale("s_003", "OREO_GOLDEN", 8, 2.99, "Lima", fromInstant.plusSeconds(7200))
         );
 
-        Page<Sales> mockPage = new PageImpl<>(mockSales);
-
-        when(salesRepository.findByBranchAndSoldAtBetween(
-                eq("Lima"), any(Instant.class), any(Instant.class), any(Pageable.class)))
-                .thenReturn(mockPage);
+        when(salesRepository.sumTotalsByBranch(eq("Lima"), any(Instant.class), any(Instant.class)))
+                .thenReturn(totalsOf(mockSales));
+        when(salesRepository.sumUnitsBySkuForBranch(eq("Lima"), any(Instant.class), any(Instant.class)))
+                .thenReturn(unitsBy(mockSales, Sales::getSku));
 
         when(gitHubModelsService.generateSummary(eq(23), eq(56.27), eq("OREO_CLASSIC"), eq("Lima")))
                 .thenReturn("Resumen de Lima");
@@ -164,10 +196,7 @@ class SalesServiceTest {
                 createSale("s_002", "OREO_DOUBLE", 5, 2.49, "Miraflores", specificFrom.atStartOfDay(ZoneOffset.UTC).toInstant().plusSeconds(86400))
         );
 
-        Page<Sales> mockPage = new PageImpl<>(mockSales);
-
-        when(salesRepository.findBySoldAtBetween(any(Instant.class), any(Instant.class), any(Pageable.class)))
-                .thenReturn(mockPage);
+        stubChainWideAggregates(mockSales);
 
         when(gitHubModelsService.generateSummary(eq(15), eq(32.35), eq("OREO_CLASSIC"), eq("Miraflores")))
                 .thenReturn("Resumen del rango");
@@ -196,10 +225,7 @@ class SalesServiceTest {
                 createSale("s_005", "OREO_CLASSIC", 5, 1.99, "Miraflores", fromInstant.plusSeconds(14400))
         );
 
-        Page<Sales> mockPage = new PageImpl<>(mockSales);
-
-        when(salesRepository.findBySoldAtBetween(any(Instant.class), any(Instant.class), any(Pageable.class)))
-                .thenReturn(mockPage);
+        stubChainWideAggregates(mockSales);
 
         when(gitHubModelsService.generateSummary(eq(48), eq(116.02), eq("OREO_DOUBLE"), eq("Miraflores")))
                 .thenReturn("OREO_DOUBLE es el más vendido");
@@ -213,6 +239,33 @@ class SalesServiceTest {
         assertThat(result.getTopSku()).isEqualTo("OREO_DOUBLE");
     }
 
+    /**
+     * TEST 6: Lectura desde el rollup diario
+     */
+    @Test
+    @DisplayName("Debe leer los agregados desde el rollup diario cuando está habilitado")
+    void shouldReadAggregatesFromDailyRollupWhenEnabled() {
+        ReflectionTestUtils.setField(salesService, "rollupEnabled", true);
+
+        when(salesDailyRollupRepository.sumTotals(fromDate, toDate))
+                .thenReturn(new SalesTotals(3L, 30L, new BigDecimal("62.20")));
+        when(salesDailyRollupRepository.sumUnitsBySku(fromDate, toDate))
+                .thenReturn(List.of(new UnitsByKey("OREO_CLASSIC", 25L), new UnitsByKey("OREO_DOUBLE", 5L)));
+        when(salesDailyRollupRepository.sumUnitsByBranch(fromDate, toDate))
+                .thenReturn(List.of(new UnitsByKey("Miraflores", 25L), new UnitsByKey("San Isidro", 5L)));
+        when(gitHubModelsService.generateSummary(eq(30), eq(62.20), eq("OREO_CLASSIC"), eq("Miraflores")))
+                .thenReturn("Resumen desde rollup");
+
+        SalesAggregates result = salesService.calculateAggregatesForReport(fromDate, toDate, null);
+
+        assertThat(result.getTotalSales()).isEqualTo(3);
+        assertThat(result.getTotalUnits()).isEqualTo(30);
+        assertThat(result.getTotalRevenue()).isEqualTo(62.20);
+        assertThat(result.getTopSku()).isEqualTo("OREO_CLASSIC");
+        assertThat(result.getTopBranch()).isEqualTo("Miraflores");
+        verifyNoInteractions(salesRepository);
+    }
+
     /**
      * TEST BONUS: Test con fechas null
      */
@@ -223,10 +276,7 @@ class SalesServiceTest {
                 createSale("s_001", "OREO_CLASSIC", 10, 1.99, "Miraflores", Instant.now())
         );
 
-        Page<Sales> mockPage = new PageImpl<>(mockSales);
-
-        when(salesRepository.findBySoldAtBetween(any(Instant.class), any(Instant.class), any(Pageable.class)))
-                .thenReturn(mockPage);
+        stubChainWideAggregates(mockSales);
 
         when(gitHubModelsService.generateSummary(anyInt(), anyDouble(), anyString(), anyString()))
                 .thenReturn("Última semana");
@@ -242,10 +292,199 @@ class SalesServiceTest {
         assertThat(result.getTotalRevenue()).isEqualTo(19.90);
     }
 
+    /**
+     * TEST: reporte programado, una sola consulta para todas las sucursales
+     */
+    @Test
+    @DisplayName("Debe calcular todas las sucursales y el total general con una sola consulta")
+    void shouldAggregateAllBranchesInOnePass() {
+        List<Sales> mockSales = List.of(
+                createSale("s_001", "OREO_CLASSIC", 10, 1.99, "Miraflores", fromInstant),
+                createSale("s_002", "OREO_DOUBLE", 5, 2.49, "San Isidro", fromInstant.plusSeconds(3600)),
+                createSale("s_003", "OREO_CLASSIC", 15, 1.99, "Miraflores", fromInstant.plusSeconds(7200)),
+                createSale("s_004", "OREO_DOUBLE", 12, 2.49, "San Isidro", fromInstant.plusSeconds(9000))
+        );
+
+        when(salesRepository.sumByBranchAndSku(any(Instant.class), any(Instant.class)))
+                .thenReturn(branchSkuRows(mockSales));
+
+        List<SalesAggregates> result = salesService.aggregateAllBranches(fromDate, toDate);
+
+        assertThat(result).extracting(SalesAggregates::getBranch).containsExactly(null, "Miraflores", "San Isidro");
+
+        SalesAggregates overall = result.get(0);
+        assertThat(overall.getTotalSales()).isEqualTo(4);
+        assertThat(overall.getTotalUnits()).isEqualTo(42);
+        assertThat(overall.getTotalRevenue()).isEqualTo(92.08);
+        assertThat(overall.getTopSku()).isEqualTo("OREO_CLASSIC");
+        assertThat(overall.getTopBranch()).isEqualTo("Miraflores");
+        assertThat(overall.getSummary()).isNull();
+
+        SalesAggregates sanIsidro = result.get(2);
+        assertThat(sanIsidro.getTotalUnits()).isEqualTo(17);
+        assertThat(sanIsidro.getTotalRevenue()).isEqualTo(42.33);
+        assertThat(sanIsidro.getTopSku()).isEqualTo("OREO_DOUBLE");
+        assertThat(sanIsidro.getTopBranch()).isEqualTo("San Isidro");
+
+        verifyNoInteractions(gitHubModelsService);
+    }
+
+    /**
+     * TEST: carga masiva, rechazos por ítem y orden de resultados entre lotes
+     */
+    @Test
+    @DisplayName("Debe rechazar ítems inválidos y mantener el orden de resultados entre lotes")
+    void shouldRejectInvalidItemsAndKeepOrderAcrossChunks() {
+        ReflectionTestUtils.setField(salesService, "batchSize", 2);
+        stubSaveAllAssigningIds();
+        authenticateAs(Rol.CENTRAL, null);
+
+        List<SaleRequestDTO> requests = new ArrayList<>();
+        requests.add(saleRequest("Miraflores", "2025-11-01T10:00:00Z"));  // 0
+        requests.add(new SaleRequestDTO("OREO_CLASSIC", 0, new BigDecimal("1.99"),
+                "Miraflores", "2025-11-01T10:00:00Z"));                   // 1 unidades inválidas
+        requests.add(saleRequest("San Isidro", "2025-11-02T10:00:00Z"));  // 2
+        requests.add(saleRequest("Miraflores", "ayer por la tarde"));     // 3 fecha inválida
+        requests.add(null);                                               // 4 línea NDJSON mal formada
+        requests.add(saleRequest("Miraflores", "2025-11-03T10:00:00Z"));  // 5
+        requests.add(saleRequest("Barranco", "2025-11-04T10:00:00Z"));    // 6
+
+        try {
+            BatchSalesResponseDTO response = salesService.createSalesBatch(requests);
+
+            assertThat(response.getReceived()).isEqualTo(7);
+            assertThat(response.getCreated()).isEqualTo(4);
+            assertThat(response.getRejected()).isEqualTo(3);
+            assertThat(response.getResults()).extracting(BatchSaleResultDTO::getIndex)
+                    .containsExactly(0, 1, 2, 3, 4, 5, 6);
+            assertThat(response.getResults()).extracting(BatchSaleResultDTO::getStatus)
+                    .containsExactly("CREATED", "REJECTED", "CREATED", "REJECTED", "REJECTED", "CREATED", "CREATED");
+            assertThat(response.getResults()).extracting(BatchSaleResultDTO::getId)
+                    .containsExactly("s_1", null, "s_2", null, null, "s_3", "s_4");
+            assertThat(response.getResults().get(1).getError()).isEqualTo("units: Debe vender al menos 1 unidad");
+            assertThat(response.getResults().get(3).getError()).isEqualTo("soldAt: La fecha debe estar en formato ISO-8601");
+            assertThat(response.getResults().get(4).getError()).isEqualTo("JSON inválido");
+
+            // 4 ventas válidas con batchSize 2: dos lotes, sin lote vacío al final
+            verify(salesRepository, times(2)).saveAll(anyList());
+            verify(salesRollupService, times(2)).contributeAll(anyList());
+            verify(reportSnapshotService, times(2)).touchAll(anyList());
+            verify(entityManager, times(2)).clear();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * TEST: carga masiva, usuario BRANCH solo crea ventas de su sucursal
+     */
+    @Test
+    @DisplayName("Debe rechazar en el lote las ventas de otra sucursal para un usuario BRANCH")
+    void shouldRejectOtherBranchItemsForBranchUser() {
+        stubSaveAllAssigningIds();
+        authenticateAs(Rol.BRANCH, "Miraflores");
+
+        try {
+            BatchSalesResponseDTO response = salesService.createSalesBatch(List.of(
+                    saleRequest("San Isidro", "2025-11-01T10:00:00Z"),
+                    saleRequest("miraflores", "2025-11-01T11:00:00Z")));
+
+            assertThat(response.getCreated()).isEqualTo(1);
+            assertThat(response.getResults().get(0).getStatus()).isEqualTo("REJECTED");
+            assertThat(response.getResults().get(0).getError())
+                    .isEqualTo("Usuario BRANCH solo puede crear ventas para su sucursal: Miraflores");
+            assertThat(response.getResults().get(1).getStatus()).isEqualTo("CREATED");
+            assertThat(response.getResults().get(1).getId()).isEqualTo("s_1");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * TEST: carga masiva, límite de ítems por request
+     */
+    @Test
+    @DisplayName("Debe rechazar el lote completo cuando excede el máximo de ítems")
+    void shouldRejectBatchOverMaxItems() {
+        ReflectionTestUtils.setField(salesService, "batchMaxItems", 2);
+
+        List<SaleRequestDTO> requests = List.of(
+                saleRequest("Miraflores", "2025-11-01T10:00:00Z"),
+                saleRequest("Miraflores", "2025-11-01T11:00:00Z"),
+                saleRequest("Miraflores", "2025-11-01T12:00:00Z"));
+
+        assertThatThrownBy(() -> salesService.createSalesBatch(requests))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("El lote excede el máximo de 2 ventas");
+
+        verifyNoInteractions(salesRepository, userRepository, salesRollupService, reportSnapshotService);
+    }
+
     // ==========================================
-    // MÉTODO AUXILIAR
+    // MÉTODOS AUXILIARES
     // ==========================================
 
+    /**
+     * Simula el id generado por saveAll para las ventas del lote, en orden de escritura
+     */
+    private void stubSaveAllAssigningIds() {
+        AtomicInteger nextId = new AtomicInteger();
+        when(salesRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Sales> chunk = invocation.getArgument(0);
+            chunk.forEach(sale -> sale.setId("s_" + nextId.incrementAndGet()));
+            return chunk;
+        });
+    }
+
+    private void authenticateAs(Rol role, String branch) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser("u_1", "user@oreo.com", "test.user", role, branch), null));
+    }
+
+    private SaleRequestDTO saleRequest(String branch, String soldAt) {
+        return new SaleRequestDTO("OREO_CLASSIC", 5, new BigDecimal("1.99"), branch, soldAt);
+    }
+
+    /**
+     * Simula los GROUP BY del repositorio a partir de una lista de ventas
+     */
+    private void stubChainWideAggregates(List<Sales> sales) {
+        when(salesRepository.sumTotals(any(Instant.class), any(Instant.class)))
+                .thenReturn(totalsOf(sales));
+        when(salesRepository.sumUnitsBySku(any(Instant.class), any(Instant.class)))
+                .thenReturn(unitsBy(sales, Sales::getSku));
+        when(salesRepository.sumUnitsByBranch(any(Instant.class), any(Instant.class)))
+                .thenReturn(unitsBy(sales, Sales::getBranch));
+    }
+
+    private SalesTotals totalsOf(List<Sales> sales) {
+        long units = sales.stream().mapToLong(Sales::getUnits).sum();
+        BigDecimal revenue = sales.stream()
+                .map(s -> s.getPrice().multiply(BigDecimal.valueOf(s.getUnits())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new SalesTotals((long) sales.size(), units, revenue);
+    }
+
+    private List<BranchSkuTotals> branchSkuRows(List<Sales> sales) {
+        return sales.stream()
+                .collect(Collectors.groupingBy(s -> List.of(s.getBranch(), s.getSku())))
+                .values().stream()
+                .map(group -> {
+                    SalesTotals totals = totalsOf(group);
+                    return new BranchSkuTotals(group.get(0).getBranch(), group.get(0).getSku(),
+                            totals.getTotalSales(), totals.getTotalUnits(), totals.getTotalRevenue());
+                })
+                .toList();
+    }
+
+    private List<UnitsByKey> unitsBy(List<Sales> sales, Function<Sales, String> key) {
+        return sales.stream()
+                .collect(Collectors.groupingBy(key, Collectors.summingLong(Sales::getUnits)))
+                .entrySet().stream()
+                .map(e -> new UnitsByKey(e.getKey(), e.getValue()))
+                .toList();
+    }
+
     private Sales createSale(String id, String sku, int units, double price, String branch, Instant soldAt) {
         return Sales.builder()
                 .id(id)
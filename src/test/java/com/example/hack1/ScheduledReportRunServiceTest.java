@@ -0,0 +1,110 @@
+package com.example.hack1;
+
+import com.example.hack1.DTO.Request.ReportRequestedEvent;
+import com.example.hack1.report.Repository.ReportJobRepository;
+import com.example.hack1.report.Repository.ScheduledReportRunRepository;
+import com.example.hack1.report.Service.ReportJobService;
+import com.example.hack1.report.Service.ReportRetryPolicies;
+import com.example.hack1.report.Service.ScheduledReportRunService;
+import com.example.hack1.report.Service.ScheduledReportRunService.ScheduledReport;
+import com.example.hack1.report.domain.ReportJob;
+import com.example.hack1.report.domain.ReportJobStatus;
+import com.example.hack1.report.domain.ScheduledReportRun;
+import com.example.hack1.sales.domain.SalesAggregates;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Liderazgo del reporte programado contra H2 (embebida por @DataJpaTest)
+ */
+@DataJpaTest
+@Import({ScheduledReportRunService.class, ReportJobService.class, ReportRetryPolicies.class})
+@DisplayName("Corridas del reporte semanal programado")
+class ScheduledReportRunServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 11, 3);
+    private static final LocalDate TO = LocalDate.of(2025, 11, 9);
+
+    @Autowired
+    private ScheduledReportRunService runService;
+
+    @Autowired
+    private ScheduledReportRunRepository runRepository;
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Solo un nodo reclama la corrida y solo ese nodo puede encolar sus reportes")
+    void shouldRunOncePerPeriod() {
+        runService.register("weekly_2025-11-03", FROM, TO);
+        runService.register("weekly_2025-11-03", FROM, TO);
+
+        assertThat(runService.tryClaim("weekly_2025-11-03", "node-1")).isTrue();
+        assertThat(runService.tryClaim("weekly_2025-11-03", "node-2")).isFalse();
+
+        List<ScheduledReport> reports = List.of(new ScheduledReport(event("req_weekly_A"), aggregates()));
+        assertThat(runService.complete("weekly_2025-11-03", "node-2", reports)).isFalse();
+        assertThat(runService.complete("weekly_2025-11-03", "node-1", reports)).isTrue();
+        flushAndClear();
+
+        ScheduledReportRun run = runRepository.findById("weekly_2025-11-03").orElseThrow();
+        assertThat(run.isFinished()).isTrue();
+        assertThat(run.getJobsEnqueued()).isEqualTo(1);
+        assertThat(runService.tryClaim("weekly_2025-11-03", "node-2")).isFalse();
+
+        ReportJob job = reportJobRepository.findById("req_weekly_A").orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(ReportJobStatus.QUEUED);
+        assertThat(job.isPrecomputed()).isTrue();
+        assertThat(job.toAggregates().getSummary()).isEqualTo("Semana sólida en Miraflores.");
+    }
+
+    @Test
+    @DisplayName("Si el nodo dueño muere, otro retoma la corrida cuando vence el lease")
+    void shouldTakeOverExpiredLease() {
+        runService.register("weekly_2025-11-03", FROM, TO);
+        runService.tryClaim("weekly_2025-11-03", "node-1");
+        flushAndClear();
+
+        ScheduledReportRun stuck = runRepository.findById("weekly_2025-11-03").orElseThrow();
+        stuck.setLeaseUntil(Instant.now().minusSeconds(1));
+        flushAndClear();
+
+        assertThat(runService.tryClaim("weekly_2025-11-03", "node-2")).isTrue();
+        assertThat(runService.complete("weekly_2025-11-03", "node-1", List.of())).isFalse();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static SalesAggregates aggregates() {
+        return new SalesAggregates(3, 30, 74.85, "OREO_CLASSIC", "Miraflores", FROM, TO, "Miraflores",
+                "Semana sólida en Miraflores.");
+    }
+
+    private static ReportRequestedEvent event(String requestId) {
+        return ReportRequestedEvent.builder()
+                .requestId(requestId)
+                .from(FROM)
+                .to(TO)
+                .branch("Miraflores")
+                .emailTo("miraflores@oreo.com")
+                .requestedBy("miraflores.user")
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.hack1;
+
+import com.example.hack1.Config.CircuitBreaker;
+import com.example.hack1.Models.GitHubModelsService;
+import com.example.hack1.Models.SummaryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Caché de resúmenes del LLM")
+class SummaryCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("La misma huella se sirve desde memoria y suma la latencia ahorrada")
+    void shouldServeSameFingerprintFromMemory() {
+        SummaryCache cache = new SummaryCache(10, 24, "", meterRegistry);
+        String key = SummaryCache.fingerprint("gpt-4o-mini", "sistema", "usuario", 200, 0.7);
+
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, "Resumen del modelo", 2_500);
+
+        assertThat(cache.get(key)).isEqualTo("Resumen del modelo");
+        assertThat(cache.get(SummaryCache.fingerprint("otro-modelo", "sistema", "usuario", 200, 0.7))).isNull();
+        assertThat(meterRegistry.get("llm.summary.cache.hits").tag("tier", "memory").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("llm.summary.cache.misses").functionCounter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("llm.summary.cache.latency.saved").counter().count()).isEqualTo(2_500.0);
+    }
+
+    @Test
+    @DisplayName("Al superar el tamaño máximo se descarta la entrada menos usada")
+    void shouldEvictLeastRecentlyUsed() {
+        SummaryCache cache = new SummaryCache(2, 24, "", meterRegistry);
+        cache.put("a", "A", 1);
+        cache.put("b", "B", 1);
+        cache.get("a");
+        cache.put("c", "C", 1);
+
+        assertThat(cache.get("a")).isEqualTo("A");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Las entradas vencidas no se sirven")
+    void shouldExpireEntries() {
+        SummaryCache cache = new SummaryCache(10, 0, "", meterRegistry);
+        cache.put("a", "A", 1);
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    @DisplayName("El nivel en disco sobrevive a un reinicio")
+    void shouldSurviveRestartWithDiskTier(@TempDir Path dir) {
+        new SummaryCache(10, 24, dir.toString(), meterRegistry).put("clave", "Resumen\ncon dos líneas", 1_200);
+
+        SummaryCache restarted = new SummaryCache(10, 24, dir.toString(), new SimpleMeterRegistry());
+
+        assertThat(restarted.get("clave")).isEqualTo("Resumen\ncon dos líneas");
+        assertThat(restarted.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("El resumen de fallback nunca se guarda en caché")
+    void shouldNotCacheFallback() {
+        SummaryCache cache = new SummaryCache(10, 24, "", meterRegistry);
+        GitHubModelsService service = new GitHubModelsService(new RestTemplate(),
+                new CircuitBreaker("github-models", 5, Duration.ofSeconds(30), meterRegistry), cache);
+        ReflectionTestUtils.setField(service, "deadlineMs", 5_000L);
+        ReflectionTestUtils.setField(service, "token", "test");
+        ReflectionTestUtils.setField(service, "endpoint", "http://127.0.0.1:1");
+        ReflectionTestUtils.setField(service, "model", "gpt-4o-mini");
+
+        String first = service.generateSummary(30, 62.20, "OREO_CLASSIC", "Miraflores");
+        String second = service.generateSummary(30, 62.20, "OREO_CLASSIC", "Miraflores");
+
+        assertThat(first).isEqualTo(second).contains("OREO_CLASSIC");
+        assertThat(cache.size()).isZero();
+        assertThat(meterRegistry.get("llm.summary.cache.misses").functionCounter().count()).isEqualTo(2.0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.hack1;
+
+import com.example.hack1.Id.UlidIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Tests del generador de ids ULID")
+class UlidIdGeneratorTest {
+
+    private final UlidIdGenerator generator = new UlidIdGenerator();
+
+    @Test
+    @DisplayName("Debe conservar el prefijo y usar 26 caracteres Crockford base32")
+    void shouldKeepPrefixAndUseCrockfordAlphabet() {
+        String id = generator.nextId("s_");
+
+        assertThat(id).startsWith("s_").hasSize(28);
+        assertThat(id.substring(2)).matches("[0-9A-HJKMNP-TV-Z]{26}");
+    }
+
+    @Test
+    @DisplayName("Debe generar ids estrictamente crecientes en el mismo nodo")
+    void shouldBeMonotonic() {
+        String previous = generator.nextId("u_");
+        for (int i = 0; i < 100_000; i++) {
+            String next = generator.nextId("u_");
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    @DisplayName("Debe generar ids únicos desde varios hilos")
+    void shouldBeUniqueAcrossThreads() throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 25_000; i++) {
+                        ids.add(generator.nextId("s_"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(ids).hasSize(8 * 25_000);
+    }
+}
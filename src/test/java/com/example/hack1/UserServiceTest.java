@@ -0,0 +1,89 @@
+package com.example.hack1;
+
+import com.example.hack1.Mapper.UserMapper;
+import com.example.hack1.Security.AuthenticatedUser;
+import com.example.hack1.Security.TokenRevocationService;
+import com.example.hack1.User.Repository.UserRepository;
+import com.example.hack1.User.Service.UsersERVICE;
+import com.example.hack1.User.domain.Rol;
+import com.example.hack1.User.domain.User;
+import com.example.hack1.report.Service.ReportSnapshotService;
+import com.example.hack1.sales.Service.SalesRollupService;
+import com.example.hack1.sales.domain.Sales;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Eliminación de usuarios")
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private ReportSnapshotService reportSnapshotService;
+
+    @InjectMocks
+    private UsersERVICE usersService;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser("u_1", "central@oreo.com", "central.user", Rol.CENTRAL, null), null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Las ventas borradas en cascada se restan del rollup e invalidan snapshots antes de eliminar al usuario")
+    void shouldRetractAndTouchCascadedSalesBeforeDelete() {
+        List<Sales> sales = List.of(
+                sale("s_001", "Miraflores", Instant.parse("2025-11-01T10:00:00Z")),
+                sale("s_002", "Miraflores", Instant.parse("2025-11-02T10:00:00Z")));
+        User user = User.builder().id("u_2").username("miraflores.user").role(Rol.BRANCH)
+                .branch("Miraflores").sales(sales).build();
+        when(userRepository.findById("u_2")).thenReturn(Optional.of(user));
+
+        usersService.deleteUser("u_2");
+
+        InOrder order = inOrder(salesRollupService, reportSnapshotService, userRepository, tokenRevocationService);
+        order.verify(salesRollupService).retractAll(sales);
+        order.verify(reportSnapshotService).touchAll(sales);
+        order.verify(userRepository).delete(user);
+        order.verify(tokenRevocationService).revokeUser("u_2");
+    }
+
+    private Sales sale(String id, String branch, Instant soldAt) {
+        return Sales.builder().id(id).sku("OREO_CLASSIC").units(5).price(new BigDecimal("1.99"))
+                .branch(branch).soldAt(soldAt).build();
+    }
+}